@@ -0,0 +1,98 @@
+#!/usr/bin/env bash
+#
+# Time to first successful ingest and memory footprint, per launch mode.
+#
+#   mvn -Pfast-startup -DskipTests package
+#   scripts/startup-benchmark.sh [runs]
+#   MODES="default no-jpa" scripts/startup-benchmark.sh 3
+#
+# Each run starts the app, posts a one-event batch until it returns 200, then samples
+# VmRSS of the JVM, forces a full GC and reads live heap and loaded classes from
+# /actuator/metrics, and stops it. Database settings come from the usual env vars
+# (DB_URL, DB_USER, DB_PASSWORD, SQL_INIT_MODE ...). Linux only (/proc).
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR=$ROOT/target/factory-events-0.0.1-SNAPSHOT.jar
+FAST_DIR=$ROOT/target/fast-startup
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JCMD=${JAVA_HOME:+$JAVA_HOME/bin/}jcmd
+MODES=${MODES:-default no-jpa fast fast-no-init}
+
+if [[ ! -f $JAR || ! -f $FAST_DIR/factory-events.jsa ]]; then
+  echo "Build first: mvn -Pfast-startup -DskipTests package" >&2
+  exit 1
+fi
+
+launch() {
+  case $1 in
+    default)
+      exec "$JAVA" -jar "$JAR" --server.port="$PORT" ;;
+    no-jpa)
+      export SPRING_PROFILES_ACTIVE=no-jpa; exec "$JAVA" -jar "$JAR" --server.port="$PORT" ;;
+    fast)
+      exec "$JAVA" -XX:SharedArchiveFile="$FAST_DIR/factory-events.jsa" -Dspring.aot.enabled=true \
+        -jar "$FAST_DIR/factory-events-0.0.1-SNAPSHOT.jar" --server.port="$PORT" ;;
+    fast-no-init)
+      export SQL_INIT_MODE=never; exec "$JAVA" -XX:SharedArchiveFile="$FAST_DIR/factory-events.jsa" -Dspring.aot.enabled=true \
+        -jar "$FAST_DIR/factory-events-0.0.1-SNAPSHOT.jar" --server.port="$PORT" ;;
+  esac
+}
+
+batch() {
+  local now
+  now=$(date -u +%Y-%m-%dT%H:%M:%SZ)
+  printf '[{"eventId":"startup-%s","eventTime":"%s","machineId":"M-STARTUP","factoryId":"F-STARTUP","lineId":"L-STARTUP","durationMs":100,"defectCount":0}]' \
+    "$(date +%s%N)" "$now"
+}
+
+one_run() {
+  local mode=$1 start pid code elapsed rss heap classes
+  if curl -s -o /dev/null "http://localhost:$PORT/"; then
+    echo "port $PORT is already in use" >&2
+    exit 1
+  fi
+  start=$(date +%s%N)
+  launch "$mode" > "$ROOT/target/startup-$mode.log" 2>&1 &
+  pid=$!
+  while :; do
+    code=$(curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' \
+      --data "$(batch)" "http://localhost:$PORT/events/batch" || true)
+    [[ $code == 200 ]] && break
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "$mode: app exited, see target/startup-$mode.log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  rss=$(awk '/VmRSS/ {printf "%d", $2 / 1024}' "/proc/$pid/status")
+  "$JCMD" "$pid" GC.run > /dev/null
+  heap=$(metric 'jvm.memory.used?tag=area:heap' | awk '{printf "%d", $1 / 1048576}')
+  classes=$(metric 'jvm.classes.loaded' | awk '{printf "%d", $1}')
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed $rss $heap $classes"
+}
+
+# First measurement value of an actuator metric
+metric() {
+  curl -s "http://localhost:$PORT/actuator/metrics/$1" | grep -o '"value":[0-9.eE+-]*' | head -1 | cut -d: -f2
+}
+
+median() {
+  sort -n | awk '{a[NR] = $1} END {print (NR % 2) ? a[(NR + 1) / 2] : int((a[NR / 2] + a[NR / 2 + 1]) / 2)}'
+}
+
+printf '%-14s %5s %18s %8s %14s %8s\n' mode runs first_ingest_ms rss_mb heap_live_mb classes
+for mode in $MODES; do
+  results=()
+  for ((i = 0; i < RUNS; i++)); do
+    results+=("$(one_run "$mode")")
+  done
+  col() { printf '%s\n' "${results[@]}" | cut -d' ' -f"$1" | median; }
+  printf '%-14s %5d %18d %8d %14d %8d\n' "$mode" "$RUNS" "$(col 1)" "$(col 2)" "$(col 3)" "$(col 4)"
+done
+echo "(medians)"
@@ -0,0 +1,79 @@
+package com.backend;
+
+import com.backend.dao.EventBatchDao;
+import com.backend.dto.EventIngestRequest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic event batches shared by the benchmarks.
+ */
+public final class BenchmarkData {
+
+    public static final Instant NOW = Instant.parse("2026-01-15T12:00:00Z");
+
+    private BenchmarkData() {}
+
+    /**
+     * {@code size} valid requests with ids {@code prefix-0 .. prefix-(size-1)}:
+     * 10 factories, 50 lines, 500 machines, event times within the last hour.
+     */
+    public static List<EventIngestRequest> requests(String prefix, int size, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        List<EventIngestRequest> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int machine = rnd.nextInt(500);
+            out.add(EventIngestRequest.builder()
+                    .eventId(prefix + "-" + i)
+                    .factoryId("F-" + (machine % 10))
+                    .lineId("L-" + (machine % 50))
+                    .machineId("M-" + machine)
+                    .eventTime(NOW.minusMillis(rnd.nextLong(3_600_000)))
+                    .durationMs(rnd.nextLong(10_000))
+                    .defectCount(rnd.nextInt(10) == 0 ? -1 : rnd.nextInt(5))
+                    .build());
+        }
+        return out;
+    }
+
+    /**
+     * {@link #requests} as accepted rows, received at {@link #NOW}. Every row has its own
+     * id strings, as rows mapped from deserialized JSON do.
+     */
+    public static List<EventBatchDao.EventRow> rows(String prefix, int size, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        List<EventBatchDao.EventRow> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int machine = rnd.nextInt(500);
+            out.add(new EventBatchDao.EventRow(
+                    prefix + "-" + i,
+                    "F-" + (machine % 10),
+                    "L-" + (machine % 50),
+                    "M-" + machine,
+                    NOW.minusMillis(rnd.nextLong(3_600_000)),
+                    NOW,
+                    rnd.nextLong(10_000),
+                    rnd.nextInt(10) == 0 ? -1 : rnd.nextInt(5)));
+        }
+        return out;
+    }
+
+    /**
+     * Same as {@link #requests}, with every {@code invalidEvery}-th request broken in one
+     * of the ways the service rejects (missing field, bad duration, future time).
+     */
+    public static List<EventIngestRequest> mixedRequests(String prefix, int size, int invalidEvery, long seed) {
+        List<EventIngestRequest> out = requests(prefix, size, seed);
+        for (int i = 0; i < size; i += invalidEvery) {
+            EventIngestRequest r = out.get(i);
+            switch ((i / invalidEvery) % 3) {
+                case 0 -> r.setMachineId("");
+                case 1 -> r.setDurationMs(-1);
+                default -> r.setEventTime(NOW.plusSeconds(3600));
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,132 @@
+package com.backend.dao;
+
+import com.backend.BenchmarkData;
+import com.backend.dto.EventIngestRequest;
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Database side of POST /events/batch: the insert + conditional update sequence of
+ * EventService against a real PostgreSQL.
+ *
+ * Uses a throwaway Testcontainers PostgreSQL, or an existing database when
+ * JMH_DB_URL (and optionally JMH_DB_USER / JMH_DB_PASSWORD) is set. That database's
+ * event table is truncated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EventBatchDaoBenchmark {
+
+    public enum Mix {
+        /** All ids are new: one insert batch. */
+        INSERT,
+        /** All ids exist with the same payload: insert + update batch, nothing changes. */
+        DEDUP,
+        /** All ids exist with a newer, different payload: insert + update batch, every row updated. */
+        UPDATE,
+        /** One third of each. */
+        MIXED
+    }
+
+    @Param({"100", "1000", "5000"})
+    int batchSize;
+
+    @Param
+    Mix mix;
+
+    PostgreSQLContainer<?> postgres;
+    HikariDataSource dataSource;
+    EventBatchDao dao;
+
+    /** Rows already in the table, reused by DEDUP (as is) and UPDATE (with a new payload). */
+    List<EventBatchDao.EventRow> existing;
+    List<EventBatchDao.EventRow> batch;
+    long insertSeq;
+    int version;
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        String url = System.getenv("JMH_DB_URL");
+        dataSource = new HikariDataSource();
+        if (url == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            dataSource.setJdbcUrl(postgres.getJdbcUrl());
+            dataSource.setUsername(postgres.getUsername());
+            dataSource.setPassword(postgres.getPassword());
+        } else {
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(System.getenv().getOrDefault("JMH_DB_USER", "postgres"));
+            dataSource.setPassword(System.getenv().getOrDefault("JMH_DB_PASSWORD", "postgres"));
+        }
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("TRUNCATE event");
+        dao = new EventBatchDao(jdbc, EventShards.single(dataSource, jdbc, null), null);
+
+        existing = new ArrayList<>(batchSize);
+        for (EventIngestRequest r : BenchmarkData.requests("SEED", batchSize, 7)) {
+            existing.add(row(r.getEventId(), r, BenchmarkData.NOW, r.getDefectCount()));
+        }
+        dao.batchInsertIgnoreConflicts(existing);
+        jdbc.execute("VACUUM ANALYZE event");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        dataSource.close();
+        if (postgres != null) postgres.stop();
+    }
+
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        // Fresh ids / a fresh payload each call, so every invocation does the same work
+        version++;
+        Instant received = BenchmarkData.NOW.plusSeconds(version);
+        batch = new ArrayList<>(batchSize);
+        List<EventIngestRequest> fresh = BenchmarkData.requests("NEW", batchSize, version);
+        for (int i = 0; i < batchSize; i++) {
+            Mix kind = mix == Mix.MIXED ? Mix.values()[i % 3] : mix;
+            EventBatchDao.EventRow seeded = existing.get(i);
+            batch.add(switch (kind) {
+                case INSERT -> row("NEW-" + insertSeq++, fresh.get(i), received, fresh.get(i).getDefectCount());
+                case DEDUP -> seeded;
+                default -> new EventBatchDao.EventRow(seeded.eventId(), seeded.factoryId(), seeded.lineId(),
+                        seeded.machineId(), seeded.eventTime(), received, seeded.durationMs(), version);
+            });
+        }
+    }
+
+    @Benchmark
+    public long ingest() {
+        // Same sequence as EventService.ingestBatch
+        int[] inserted = dao.batchInsertIgnoreConflicts(batch);
+        List<EventBatchDao.EventRow> conflicted = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] == 0) conflicted.add(batch.get(i));
+        }
+        long updated = 0;
+        if (!conflicted.isEmpty()) {
+            for (int c : dao.batchConditionalUpdate(conflicted)) updated += Math.max(0, c);
+        }
+        return updated;
+    }
+
+    private static EventBatchDao.EventRow row(String eventId, EventIngestRequest r, Instant received, int defects) {
+        return new EventBatchDao.EventRow(eventId, r.getFactoryId(), r.getLineId(), r.getMachineId(),
+                r.getEventTime(), received, r.getDurationMs(), defects);
+    }
+}
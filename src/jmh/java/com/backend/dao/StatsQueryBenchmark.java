@@ -0,0 +1,128 @@
+package com.backend.dao;
+
+import com.backend.BenchmarkData;
+import com.backend.FactoryEventsApplication;
+import com.backend.dto.EventIngestRequest;
+import com.backend.repository.EventRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * The two stats queries through the old JPA path (EventRepository native queries with
+ * interface projections) and through EventStatsDao, against the same seeded table.
+ *
+ * Both run in a read-only transaction, as StatsService does, and read every column of
+ * the result. Database as in EventBatchDaoBenchmark: Testcontainers, or JMH_DB_URL
+ * (its event table is truncated).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class StatsQueryBenchmark {
+
+    static final Instant FROM = BenchmarkData.NOW.minusSeconds(3_600);
+    static final Instant TO = BenchmarkData.NOW;
+    static final int EVENTS = 20_000;
+
+    PostgreSQLContainer<?> postgres;
+    ConfigurableApplicationContext context;
+    EventRepository repository;
+    EventStatsDao dao;
+    TransactionTemplate readTx;
+
+    @Setup(Level.Trial)
+    public void start() {
+        String url = System.getenv("JMH_DB_URL");
+        String user = System.getenv().getOrDefault("JMH_DB_USER", "postgres");
+        String password = System.getenv().getOrDefault("JMH_DB_PASSWORD", "postgres");
+        if (url == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            url = postgres.getJdbcUrl();
+            user = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+
+        context = new SpringApplicationBuilder(FactoryEventsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + user,
+                        "--spring.datasource.password=" + password,
+                        "--logging.level.root=WARN");
+        repository = context.getBean(EventRepository.class);
+        dao = context.getBean(EventStatsDao.class);
+        readTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readTx.setReadOnly(true);
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.execute("TRUNCATE event");
+        EventBatchDao writer = context.getBean(EventBatchDao.class);
+        List<EventBatchDao.EventRow> rows = new ArrayList<>(1_000);
+        for (EventIngestRequest r : BenchmarkData.requests("STATS", EVENTS, 11)) {
+            rows.add(new EventBatchDao.EventRow(r.getEventId(), r.getFactoryId(), r.getLineId(), r.getMachineId(),
+                    r.getEventTime(), BenchmarkData.NOW, r.getDurationMs(), r.getDefectCount()));
+            if (rows.size() == 1_000) {
+                writer.batchInsertIgnoreConflicts(rows);
+                rows.clear();
+            }
+        }
+        jdbc.execute("VACUUM ANALYZE event");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        if (postgres != null) postgres.stop();
+    }
+
+    @Benchmark
+    public long machineStatsJpa() {
+        return readTx.execute(s -> {
+            EventRepository.MachineStatsAgg agg = repository.aggregateMachineStats("M-7", FROM, TO);
+            return agg.getEventsCount() + agg.getDefectsCount();
+        });
+    }
+
+    @Benchmark
+    public long machineStatsJdbc() {
+        return readTx.execute(s -> {
+            EventStatsDao.MachineStats agg = dao.machineStats("M-7", FROM, TO);
+            return agg.eventsCount() + agg.defectsCount();
+        });
+    }
+
+    @Benchmark
+    public long topDefectLinesJpa() {
+        return readTx.execute(s -> {
+            long sum = 0;
+            for (EventRepository.TopLineAgg r : repository.findTopLinesByTotalDefects("F-3", FROM, TO, 10)) {
+                sum += r.getLineId().length() + r.getEventCount() + r.getTotalDefects();
+            }
+            return sum;
+        });
+    }
+
+    @Benchmark
+    public long topDefectLinesJdbc() {
+        return readTx.execute(s -> {
+            long sum = 0;
+            for (EventStatsDao.LineStats r : dao.topDefectLines("F-3", FROM, TO, 10)) {
+                sum += r.lineId().length() + r.eventCount() + r.totalDefects();
+            }
+            return sum;
+        });
+    }
+}
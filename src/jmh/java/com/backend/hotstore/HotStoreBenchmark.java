@@ -0,0 +1,95 @@
+package com.backend.hotstore;
+
+import com.backend.BenchmarkData;
+import com.backend.dao.EventBatchDao.EventRow;
+import com.backend.dao.EventStatsDao.LineStats;
+import com.backend.dao.EventStatsDao.MachineStats;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The two /stats queries over the same events held two ways:
+ *  - hot*:  HotEventStore (off-heap columns, dictionary codes, time deltas);
+ *  - heap*: a HashMap of EventRow by event_id, the obvious in-memory store with the same
+ *           update-in-place ability, scanned with plain Java.
+ *
+ * Events as in BenchmarkData: 500 machines, 50 lines, 10 factories, one hour of event
+ * time; the queries cover the last 30 minutes, so about half the rows are in range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HotStoreBenchmark {
+
+    static final Instant FROM = BenchmarkData.NOW.minusSeconds(1_800);
+    static final Instant TO = BenchmarkData.NOW.plusSeconds(1);
+
+    @Param({"100000", "1000000"})
+    int events;
+
+    HotEventStore store;
+    Map<String, EventRow> heap;
+
+    @Setup
+    public void setUp() {
+        List<EventRow> rows = BenchmarkData.rows("HOT", events, 7);
+        store = new HotEventStore(Duration.ofHours(6), 1L << 30, 65_536,
+                Clock.fixed(BenchmarkData.NOW, ZoneOffset.UTC));
+        for (int i = 0; i < rows.size(); i += 1_000) {
+            store.apply(rows.subList(i, Math.min(rows.size(), i + 1_000)));
+        }
+        store.markReady(BenchmarkData.NOW.minus(Duration.ofHours(6)));
+
+        heap = new HashMap<>();
+        for (EventRow r : rows) heap.put(r.eventId(), r);
+    }
+
+    @Benchmark
+    public MachineStats hotMachineStats() {
+        return store.machineStats("M-7", FROM, TO);
+    }
+
+    @Benchmark
+    public MachineStats heapMachineStats() {
+        long count = 0;
+        long defects = 0;
+        for (EventRow r : heap.values()) {
+            if (r.machineId().equals("M-7") && !r.eventTime().isBefore(FROM) && r.eventTime().isBefore(TO)) {
+                count++;
+                defects += r.defectCount() == -1 ? 0 : r.defectCount();
+            }
+        }
+        return new MachineStats(count, defects);
+    }
+
+    @Benchmark
+    public List<LineStats> hotTopDefectLines() {
+        return store.topDefectLines("F-3", FROM, TO, 10);
+    }
+
+    @Benchmark
+    public List<LineStats> heapTopDefectLines() {
+        Map<String, long[]> byLine = new HashMap<>();
+        for (EventRow r : heap.values()) {
+            if (r.factoryId().equals("F-3") && !r.eventTime().isBefore(FROM) && r.eventTime().isBefore(TO)) {
+                long[] acc = byLine.computeIfAbsent(r.lineId(), k -> new long[2]);
+                acc[0]++;
+                acc[1] += r.defectCount() == -1 ? 0 : r.defectCount();
+            }
+        }
+        List<LineStats> out = new ArrayList<>(byLine.size());
+        byLine.forEach((line, acc) -> out.add(new LineStats(line, acc[0], acc[1])));
+        return out.stream().sorted(LineStats.RANKING).limit(10).toList();
+    }
+}
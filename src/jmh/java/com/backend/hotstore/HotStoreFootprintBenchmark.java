@@ -0,0 +1,88 @@
+package com.backend.hotstore;
+
+import com.backend.BenchmarkData;
+import com.backend.dao.EventBatchDao.EventRow;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Heap cost of keeping {@code events} recent events in memory, as HotEventStore or as a
+ * HashMap of EventRow.
+ *
+ * The score is the pause of a full GC (System.gc()) with only that data live: what the
+ * collector has to trace. Setup also prints the heap retained after a full GC and the
+ * direct memory in use, for the footprint table in BENCHMARK.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class HotStoreFootprintBenchmark {
+
+    public enum Layout { HOT, HEAP }
+
+    @Param({"HOT", "HEAP"})
+    Layout layout;
+
+    @Param({"1000000"})
+    int events;
+
+    Object data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long heapBefore = retainedHeap();
+        long directBefore = directMemory();
+
+        List<EventRow> rows = BenchmarkData.rows("GC", events, 3);
+        if (layout == Layout.HOT) {
+            HotEventStore store = new HotEventStore(Duration.ofHours(6), 1L << 30, 65_536,
+                    Clock.fixed(BenchmarkData.NOW, ZoneOffset.UTC));
+            for (int i = 0; i < rows.size(); i += 1_000) {
+                store.apply(rows.subList(i, Math.min(rows.size(), i + 1_000)));
+            }
+            data = store;
+        } else {
+            Map<String, EventRow> heap = new HashMap<>();
+            for (EventRow r : rows) heap.put(r.eventId(), r);
+            data = heap;
+        }
+        rows = null;
+
+        long heap = retainedHeap() - heapBefore;
+        long direct = directMemory() - directBefore;
+        System.out.printf("%nfootprint layout=%s events=%d heapBytes=%d (%.1f B/event) directBytes=%d (%.1f B/event)%n",
+                layout, events, heap, (double) heap / events, direct, (double) direct / events);
+    }
+
+    @Benchmark
+    public Object fullGc() {
+        System.gc();
+        return data;
+    }
+
+    private static long retainedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directMemory() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(b -> b.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
@@ -0,0 +1,104 @@
+package com.backend.service;
+
+import com.backend.BenchmarkData;
+import com.backend.archive.ArchiveCatalog;
+import com.backend.dao.EventBatchDao;
+import com.backend.dto.BatchIngestResponse;
+import com.backend.dto.EventIngestRequest;
+import com.backend.hotstore.HotEventStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * CPU side of POST /events/batch, without the database: bean validation plus business
+ * rules, request -> row mapping, and the full EventService.ingestBatch around them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestBenchmark {
+
+    @Param({"100", "1000"})
+    int batchSize;
+
+    /**
+     * Every n-th request is invalid; 0 = all valid.
+     */
+    @Param({"0", "10"})
+    int invalidEvery;
+
+    ValidatorFactory validatorFactory;
+    EventService service;
+    List<EventIngestRequest> requests;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        service = new EventService(new InsertingDao(), Clock.fixed(BenchmarkData.NOW, ZoneOffset.UTC), validatorFactory.getValidator(),
+                new IngestMetrics(new SimpleMeterRegistry()), HotEventStore.disabled(),
+                ArchiveCatalog.disabled());
+        requests = invalidEvery == 0
+                ? BenchmarkData.requests("E", batchSize, 42)
+                : BenchmarkData.mixedRequests("E", batchSize, invalidEvery, 42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void validate(Blackhole bh) {
+        for (EventIngestRequest r : requests) {
+            bh.consume(service.validate(r, BenchmarkData.NOW));
+        }
+    }
+
+    @Benchmark
+    public List<EventBatchDao.EventRow> validateAndMap() {
+        List<EventBatchDao.EventRow> rows = new ArrayList<>(requests.size());
+        for (EventIngestRequest r : requests) {
+            if (service.validate(r, BenchmarkData.NOW).isEmpty()) {
+                rows.add(EventService.toRow(r, BenchmarkData.NOW));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The whole of {@link EventService#ingestBatch} (validation, mapping, response,
+     * rejections, metrics) with a database that inserts every row.
+     */
+    @Benchmark
+    public BatchIngestResponse ingestBatch() {
+        return service.ingestBatch(requests);
+    }
+
+    /**
+     * Reports every row as inserted, so the benchmark stays on the CPU side.
+     */
+    static final class InsertingDao extends EventBatchDao {
+        InsertingDao() {
+            super(null, null, null);
+        }
+
+        @Override
+        public int[] batchInsertIgnoreConflicts(List<EventRow> rows) {
+            int[] counts = new int[rows.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        }
+    }
+}
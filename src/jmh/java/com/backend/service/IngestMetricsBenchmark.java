@@ -0,0 +1,65 @@
+package com.backend.service;
+
+import com.backend.dto.BatchIngestResponse;
+import com.backend.dto.RejectionDto;
+import com.backend.dto.RejectionReason;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of the metrics recorded per /events/batch request: five stage timers with
+ * percentile histograms (as configured in application.yaml), the batch-size summary and
+ * the outcome counters. Compare with the per-batch times of IngestBenchmark and
+ * EventBatchDaoBenchmark; gc.alloc.rate.norm should stay at ~0 B/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestMetricsBenchmark {
+
+    /**
+     * Rejections in the response; each increments one counter.
+     */
+    @Param({"0", "100"})
+    int rejections;
+
+    IngestMetrics metrics;
+    BatchIngestResponse response;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        metrics = new IngestMetrics(registry);
+
+        response = BatchIngestResponse.builder().accepted(700).deduped(150).updated(50).build();
+        RejectionReason[] reasons = RejectionReason.values();
+        for (int i = 0; i < rejections; i++) {
+            response.getRejections().add(RejectionDto.builder().eventId("E-" + i).reason(reasons[i % reasons.length]).build());
+        }
+        response.setRejected(rejections);
+    }
+
+    @Benchmark
+    public void recordBatch() {
+        metrics.stage(IngestMetrics.Stage.BIND, 1_200_000);
+        metrics.stage(IngestMetrics.Stage.VALIDATE, 800_000);
+        metrics.stage(IngestMetrics.Stage.INSERT, 9_000_000);
+        metrics.stage(IngestMetrics.Stage.UPDATE, 3_000_000);
+        metrics.stage(IngestMetrics.Stage.COMMIT, 1_500_000);
+        metrics.batch(1000, response);
+    }
+}
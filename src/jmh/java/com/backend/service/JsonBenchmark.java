@@ -0,0 +1,50 @@
+package com.backend.service;
+
+import com.backend.BenchmarkData;
+import com.backend.dto.EventIngestRequest;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Request body binding of POST /events/batch: UTF-8 JSON -> List<EventIngestRequest>,
+ * with the same ObjectMapper setup Spring Boot gives the message converter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"100", "1000"})
+    int batchSize;
+
+    ObjectMapper mapper;
+    JavaType listType;
+    byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        listType = mapper.getTypeFactory().constructCollectionType(List.class, EventIngestRequest.class);
+        body = mapper.writeValueAsBytes(BenchmarkData.requests("E", batchSize, 42));
+    }
+
+    @Benchmark
+    public List<EventIngestRequest> readList() throws IOException {
+        // What MappingJackson2HttpMessageConverter does for List<@Valid EventIngestRequest>
+        return mapper.readValue(body, listType);
+    }
+
+    @Benchmark
+    public List<EventIngestRequest> readListTypeReference() throws IOException {
+        return mapper.readValue(body, new TypeReference<>() {});
+    }
+}
@@ -0,0 +1,72 @@
+package com.backend.service;
+
+import com.backend.archive.ArchiveCatalog;
+import com.backend.dao.EventShards;
+import com.backend.dao.EventStatsDao;
+import com.backend.dto.MachineStatsResponse;
+import com.backend.dto.TopDefectLineDto;
+import com.backend.hotstore.HotEventStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * StatsService result mapping and rounding, fed by a canned EventStatsDao so only the
+ * Java side is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsMappingBenchmark {
+
+    static final Instant FROM = Instant.parse("2026-01-15T00:00:00Z");
+    static final Instant TO = Instant.parse("2026-01-15T06:00:00Z");
+
+    /**
+     * Rows returned by the top-defect-lines query (the service caps the limit at 100).
+     */
+    @Param({"10", "100"})
+    int lines;
+
+    StatsService service;
+
+    @Setup
+    public void setUp() {
+        List<EventStatsDao.LineStats> topLines = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            topLines.add(new EventStatsDao.LineStats("L-" + i, 1_000 + i * 7L, 3_000 - i * 11L));
+        }
+        EventStatsDao.MachineStats machine = new EventStatsDao.MachineStats(12_345, 678);
+
+        EventShards shards = EventShards.single(null, null, null);
+        EventStatsDao dao = new EventStatsDao(shards, new SimpleMeterRegistry()) {
+            @Override
+            public MachineStats machineStats(String machineId, Instant start, Instant end) {
+                return machine;
+            }
+
+            @Override
+            public List<LineStats> topDefectLines(String factoryId, Instant from, Instant to, int limit) {
+                return topLines;
+            }
+        };
+
+        service = new StatsService(dao, shards, HotEventStore.disabled(), ArchiveCatalog.disabled());
+    }
+
+    @Benchmark
+    public MachineStatsResponse machineStats() {
+        return service.machineStats("M-1", FROM, TO);
+    }
+
+    @Benchmark
+    public List<TopDefectLineDto> topDefectLines() {
+        return service.topDefectLines("F-01", FROM, TO, lines);
+    }
+}
@@ -0,0 +1,266 @@
+package com.backend.loadtest;
+
+import com.backend.FactoryEventsApplication;
+import com.backend.dto.BatchIngestResponse;
+import com.backend.loadtest.LoadTestOptions.Op;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Open-model load generator for POST /events/batch and the stats endpoints.
+ *
+ * Arrivals are scheduled at a fixed rate whether or not earlier requests have returned.
+ * Latency is recorded from the scheduled time (response time, includes queueing behind
+ * the concurrency limit) and from the actual send (service time), in HdrHistograms.
+ * After the run the final table is read back through /events/export and checked.
+ *
+ * Usage: mvn -Ploadtest verify -Dload.args="rate=100 duration=60 mix=duplicate-storm"
+ * See {@link LoadTestOptions} for every option.
+ */
+public final class LoadTest {
+
+    static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    /**
+     * Histograms of one endpoint, measured phase only.
+     */
+    static final class Endpoint {
+        final String name;
+        final Histogram response = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final Histogram service = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+    }
+
+    private final LoadTestOptions options;
+    private final ObjectMapper om = Jackson2ObjectMapperBuilder.json().build();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final AtomicLong maxDispatchLagNanos = new AtomicLong();
+
+    LoadTest(LoadTestOptions options) {
+        this.options = options;
+        for (String name : List.of("/events/batch", "/stats", "/stats/top-defect-lines")) {
+            endpoints.put(name, new Endpoint(name));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        PostgreSQLContainer<?> postgres = null;
+        ConfigurableApplicationContext app = null;
+        String baseUrl = options.baseUrl();
+        boolean ok;
+
+        try {
+            if (options.embedded()) {
+                String url = options.dbUrl();
+                if (url == null) {
+                    postgres = new PostgreSQLContainer<>("postgres:16-alpine").withDatabaseName("factory_events");
+                    postgres.start();
+                    url = postgres.getJdbcUrl();
+                }
+                // Command line arguments, so they win over application.yaml
+                app = new SpringApplicationBuilder(FactoryEventsApplication.class)
+                        .run("--server.port=0", "--spring.datasource.url=" + url,
+                                "--spring.datasource.username=postgres", "--spring.datasource.password=postgres");
+                baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            }
+
+            ok = new LoadTest(options).run(baseUrl);
+        } finally {
+            if (app != null) app.close();
+            if (postgres != null) postgres.stop();
+        }
+        // Only after the cleanup above: System.exit never returns, so finally would not run
+        System.exit(ok ? 0 : 1);
+    }
+
+    boolean run(String baseUrl) throws Exception {
+        // Short random run id keeps ids, machines and factories of different runs apart
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+        Workload workload = new Workload(options, runId, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        Verifier verifier = new Verifier(workload);
+        Semaphore inFlight = new Semaphore(options.concurrency());
+
+        long total = options.totalArrivals();
+        long warmupNanos = options.warmup().toNanos();
+        System.out.printf("run %s: %d arrivals at %d/s (%ds warmup), concurrency %d, mix %s -> %s%n",
+                runId, total, options.rate(), options.warmup().toSeconds(), options.concurrency(), options.mix(), baseUrl);
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            for (long i = 0; i < total; i++) {
+                long intended = start + i * 1_000_000_000L / options.rate();
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+                maxDispatchLagNanos.accumulateAndGet(System.nanoTime() - intended, Math::max);
+
+                Workload.Planned planned = workload.next();
+                boolean measured = intended - start >= warmupNanos;
+                if (planned.op() != Op.STATS) verifier.sent(planned.batch(), planned.version());
+                workers.submit(() -> execute(baseUrl, workload, verifier, planned, intended, measured, inFlight));
+            }
+        } // close() waits for every request
+
+        List<String> problems = verifier.verify(http, baseUrl, om, options.factories(),
+                hotMachines(workload));
+        report(System.out, workload, verifier, problems);
+        writeResults(workload, verifier, problems);
+        return problems.isEmpty();
+    }
+
+    private void execute(String baseUrl, Workload workload, Verifier verifier, Workload.Planned planned,
+                         long intended, boolean measured, Semaphore inFlight) {
+        HttpRequest request;
+        String endpoint;
+        try {
+            if (planned.op() == Op.STATS) {
+                endpoint = planned.statsUri().substring(0, planned.statsUri().indexOf('?'));
+                request = HttpRequest.newBuilder(URI.create(baseUrl + planned.statsUri()))
+                        .timeout(Duration.ofSeconds(30)).GET().build();
+            } else {
+                endpoint = "/events/batch";
+                byte[] body = om.writeValueAsBytes(workload.batch(planned.batch(), planned.version()));
+                request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+                        .timeout(Duration.ofSeconds(30))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+
+        Endpoint ep = endpoints.get(endpoint);
+        boolean ok = false;
+        String responseBody = null;
+        inFlight.acquireUninterruptibly();
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<String> res = http.send(request, HttpResponse.BodyHandlers.ofString());
+            ok = res.statusCode() == 200;
+            responseBody = res.body();
+        } catch (Exception e) {
+            // Counted as an error below; the verifier treats the batch as maybe-applied
+        } finally {
+            inFlight.release();
+        }
+        long done = System.nanoTime();
+
+        if (measured) {
+            if (ok) {
+                ep.response.recordValue(Math.min(MAX_LATENCY_MICROS, (done - intended) / 1000));
+                ep.service.recordValue(Math.min(MAX_LATENCY_MICROS, (done - sent) / 1000));
+            } else {
+                ep.errors.increment();
+            }
+        }
+        if (planned.op() != Op.STATS) {
+            BatchIngestResponse resp = null;
+            if (ok) {
+                try {
+                    resp = om.readValue(responseBody, BatchIngestResponse.class);
+                } catch (Exception e) {
+                    // treat as failed
+                }
+            }
+            verifier.completed(planned.batch(), planned.version(), resp);
+        }
+    }
+
+    private List<String> hotMachines(Workload workload) {
+        List<String> out = new ArrayList<>();
+        for (int m = 0; m < Math.max(1, options.hotMachines()); m++) out.add(workload.machineId(m));
+        return out;
+    }
+
+    private void report(PrintStream out, Workload workload, Verifier verifier, List<String> problems) {
+        out.printf("%n%-26s %8s %6s %9s %9s %9s %9s %9s   (ms, response time from scheduled start)%n",
+                "endpoint", "count", "errors", "p50", "p90", "p99", "p99.9", "max");
+        for (Endpoint ep : endpoints.values()) {
+            Histogram h = ep.response;
+            out.printf("%-26s %8d %6d %9.2f %9.2f %9.2f %9.2f %9.2f%n", ep.name, h.getTotalCount(), ep.errors.sum(),
+                    ms(h, 50), ms(h, 90), ms(h, 99), ms(h, 99.9), h.getMaxValue() / 1000.0);
+        }
+        // Lagging by more than one arrival interval means the schedule itself slipped
+        long lag = maxDispatchLagNanos.get();
+        out.printf("%nmax dispatch lag %d ms%s%n", TimeUnit.NANOSECONDS.toMillis(lag),
+                lag > 1_000_000_000L / options.rate() ? " -- the generator fell behind its schedule" : "");
+        out.printf("batches %d, accepted %d, deduped %d, updated %d, rejected %d, failed requests %d%n",
+                workload.batches(), verifier.accepted.sum(), verifier.deduped.sum(), verifier.updated.sum(),
+                verifier.rejected.sum(), verifier.failedBatches.sum());
+
+        if (problems.isEmpty()) {
+            out.println("verification: OK");
+        } else {
+            out.println("verification: FAILED (" + problems.size() + " problems)");
+            problems.stream().limit(20).forEach(p -> out.println("  " + p));
+        }
+    }
+
+    private void writeResults(Workload workload, Verifier verifier, List<String> problems) throws Exception {
+        Files.createDirectories(options.out());
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("options", options);
+        Map<String, Object> perEndpoint = new LinkedHashMap<>();
+        for (Endpoint ep : endpoints.values()) {
+            String file = ep.name.substring(1).replace('/', '-');
+            for (var kind : List.of(Map.entry("response", ep.response), Map.entry("service", ep.service))) {
+                try (PrintStream ps = new PrintStream(options.out().resolve(file + "." + kind.getKey() + ".hgrm").toFile())) {
+                    // Values are recorded in microseconds; scale the output to milliseconds
+                    kind.getValue().outputPercentileDistribution(ps, 1000.0);
+                }
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", ep.response.getTotalCount());
+            stats.put("errors", ep.errors.sum());
+            stats.put("responseMs", percentiles(ep.response));
+            stats.put("serviceMs", percentiles(ep.service));
+            perEndpoint.put(ep.name, stats);
+        }
+        summary.put("endpoints", perEndpoint);
+        summary.put("maxDispatchLagMs", TimeUnit.NANOSECONDS.toMillis(maxDispatchLagNanos.get()));
+        summary.put("ingest", Map.of("batches", workload.batches(), "accepted", verifier.accepted.sum(),
+                "deduped", verifier.deduped.sum(), "updated", verifier.updated.sum(),
+                "rejected", verifier.rejected.sum(), "failedRequests", verifier.failedBatches.sum()));
+        summary.put("verificationProblems", problems);
+        om.writerWithDefaultPrettyPrinter().writeValue(options.out().resolve("summary.json").toFile(), summary);
+    }
+
+    private static Map<String, Double> percentiles(Histogram h) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        out.put("p50", ms(h, 50));
+        out.put("p90", ms(h, 90));
+        out.put("p99", ms(h, 99));
+        out.put("p99.9", ms(h, 99.9));
+        out.put("max", h.getMaxValue() / 1000.0);
+        out.put("mean", h.getMean() / 1000.0);
+        return out;
+    }
+
+    private static double ms(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.backend.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line of {@link LoadTest}: {@code key=value} pairs, all optional.
+ *
+ * @param baseUrl     running app to target; ignored when {@code embedded}
+ * @param embedded    start the app in this JVM, on {@code dbUrl} or else a Testcontainers PostgreSQL
+ * @param dbUrl       database of the embedded app (e.g. the docker-compose one); null = container
+ * @param rate        arrivals per second (open model: independent of response times)
+ * @param duration    measured phase
+ * @param warmup      phase before it, executed but not recorded
+ * @param concurrency max requests in flight; later arrivals queue and the wait counts as latency
+ * @param seed        same seed + options = same sequence of requests
+ * @param mix         operation weights, e.g. {@code new:50,duplicate:15,update:15,stats:20}, or a preset name
+ * @param batchSize   events per /events/batch request
+ * @param machines    distinct machines
+ * @param hotMachines machines that receive {@code hotShare} of all events
+ * @param hotShare    fraction of events (and stats lookups) going to the hot machines
+ * @param factories   distinct factories (3 lines each)
+ * @param out         directory for .hgrm files and summary.json
+ */
+public record LoadTestOptions(String baseUrl, boolean embedded, String dbUrl, int rate, Duration duration, Duration warmup,
+                              int concurrency, long seed, Map<Op, Integer> mix, int batchSize, int machines,
+                              int hotMachines, double hotShare, int factories, Path out) {
+
+    public enum Op { NEW, DUPLICATE, UPDATE, STATS }
+
+    static final Map<String, String> PRESETS = Map.of(
+            "default", "new:50,duplicate:15,update:15,stats:20",
+            "duplicate-storm", "new:20,duplicate:60,stats:20",
+            "late-updates", "new:30,update:50,stats:20",
+            "stats-heavy", "new:30,duplicate:5,update:5,stats:60");
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> kv = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            kv.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestOptions o = new LoadTestOptions(
+                kv.getOrDefault("baseUrl", "http://localhost:8080"),
+                Boolean.parseBoolean(kv.getOrDefault("embedded", "false")),
+                kv.get("dbUrl"),
+                Integer.parseInt(kv.getOrDefault("rate", "50")),
+                Duration.ofSeconds(Long.parseLong(kv.getOrDefault("duration", "60"))),
+                Duration.ofSeconds(Long.parseLong(kv.getOrDefault("warmup", "10"))),
+                Integer.parseInt(kv.getOrDefault("concurrency", "64")),
+                Long.parseLong(kv.getOrDefault("seed", "42")),
+                parseMix(kv.getOrDefault("mix", "default")),
+                Integer.parseInt(kv.getOrDefault("batchSize", "200")),
+                Integer.parseInt(kv.getOrDefault("machines", "200")),
+                Integer.parseInt(kv.getOrDefault("hotMachines", "5")),
+                Double.parseDouble(kv.getOrDefault("hotShare", "0.5")),
+                Integer.parseInt(kv.getOrDefault("factories", "4")),
+                Path.of(kv.getOrDefault("out", "target/loadtest")));
+
+        if (o.rate <= 0 || o.concurrency <= 0 || o.batchSize <= 0 || o.factories <= 0
+                || o.hotMachines < 0 || o.hotMachines >= o.machines || o.hotShare < 0 || o.hotShare > 1) {
+            throw new IllegalArgumentException("Invalid options: " + o);
+        }
+        return o;
+    }
+
+    static Map<Op, Integer> parseMix(String spec) {
+        Map<Op, Integer> weights = new LinkedHashMap<>();
+        for (String part : PRESETS.getOrDefault(spec, spec).split(",")) {
+            String[] p = part.split(":");
+            weights.put(Op.valueOf(p[0].trim().toUpperCase()), Integer.parseInt(p[1].trim()));
+        }
+        if (!weights.containsKey(Op.NEW) || weights.get(Op.NEW) <= 0) {
+            throw new IllegalArgumentException("mix needs a positive new weight: " + spec);
+        }
+        return weights;
+    }
+
+    public long totalArrivals() {
+        return (warmup.toMillis() + duration.toMillis()) * rate / 1000;
+    }
+}
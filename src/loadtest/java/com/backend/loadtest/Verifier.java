@@ -0,0 +1,168 @@
+package com.backend.loadtest;
+
+import com.backend.dto.BatchIngestResponse;
+import com.backend.dto.EventDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks what was sent and checks the final table, read back through /events/export.
+ *
+ * A batch whose requests never overlapped in time has one possible final state: the
+ * payload of the last request that completed. When requests for a batch overlapped
+ * (or one failed) the server may have applied them in either order, so each row only
+ * has to match one of the versions sent.
+ */
+final class Verifier {
+
+    static final class BatchState {
+        private int inFlight;
+        private boolean ambiguous;
+        private boolean acknowledged;
+        private int lastCompleted = -1;
+        private final Set<Integer> versions = new HashSet<>();
+
+        synchronized void sent(int version) {
+            versions.add(version);
+            if (inFlight++ > 0) ambiguous = true;
+        }
+
+        synchronized void completed(int version, boolean ok) {
+            inFlight--;
+            if (ok) {
+                acknowledged = true;
+                lastCompleted = version;
+            } else {
+                ambiguous = true;
+            }
+        }
+    }
+
+    private final Workload workload;
+    private final Map<Integer, BatchState> batches = new ConcurrentHashMap<>();
+
+    final LongAdder accepted = new LongAdder();
+    final LongAdder deduped = new LongAdder();
+    final LongAdder updated = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder failedBatches = new LongAdder();
+
+    Verifier(Workload workload) {
+        this.workload = workload;
+    }
+
+    void sent(int batch, int version) {
+        batches.computeIfAbsent(batch, b -> new BatchState()).sent(version);
+    }
+
+    void completed(int batch, int version, BatchIngestResponse resp) {
+        batches.get(batch).completed(version, resp != null);
+        if (resp == null) {
+            failedBatches.increment();
+            return;
+        }
+        accepted.add(resp.getAccepted());
+        deduped.add(resp.getDeduped());
+        updated.add(resp.getUpdated());
+        rejected.add(resp.getRejected());
+    }
+
+    /**
+     * Returns human-readable mismatches; empty means the table is exactly as expected.
+     */
+    List<String> verify(HttpClient http, String baseUrl, ObjectMapper om, int factories, List<String> hotMachines)
+            throws Exception {
+        List<String> problems = new ArrayList<>();
+        Map<String, EventDto> rows = new HashMap<>();
+        for (int f = 0; f < factories; f++) {
+            String uri = "%s/events/export?factoryId=%s&from=%s&to=%s".formatted(
+                    baseUrl, workload.factoryId(f), workload.windowStart(), workload.windowEnd());
+            HttpResponse<InputStream> res = http.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            if (res.statusCode() != 200) {
+                problems.add("export " + workload.factoryId(f) + " -> HTTP " + res.statusCode());
+                continue;
+            }
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(res.body(), StandardCharsets.UTF_8))) {
+                for (String line; (line = in.readLine()) != null; ) {
+                    EventDto e = om.readValue(line, EventDto.class);
+                    if (rows.put(e.getEventId(), e) != null) problems.add("duplicate row " + e.getEventId());
+                }
+            }
+        }
+
+        long expectedRows = 0;
+        Set<String> known = new HashSet<>();
+        for (var entry : batches.entrySet()) {
+            int b = entry.getKey();
+            BatchState s = entry.getValue();
+            for (int j = 0; j < workload.batchSize(); j++) {
+                int event = j;
+                String id = workload.eventId(b, j);
+                known.add(id);
+                EventDto row = rows.get(id);
+                if (Workload.isInvalid(j)) {
+                    if (row != null) problems.add("invalid event stored: " + id);
+                    continue;
+                }
+                if (row == null) {
+                    if (s.acknowledged) problems.add("missing " + id);
+                    continue;
+                }
+                expectedRows++;
+                boolean matches = s.ambiguous
+                        ? s.versions.stream().anyMatch(v -> same(row, workload.payload(b, event, v)))
+                        : same(row, workload.payload(b, j, s.lastCompleted));
+                if (!matches) {
+                    problems.add("wrong payload " + id + (s.ambiguous ? " (none of " + s.versions + ")"
+                            : " (expected version " + s.lastCompleted + ")"));
+                }
+            }
+        }
+        rows.keySet().stream().filter(id -> !known.contains(id)).forEach(id -> problems.add("unexpected row " + id));
+
+        // Counters only add up when every request got an answer
+        if (failedBatches.sum() == 0 && accepted.sum() != expectedRows) {
+            problems.add("accepted=" + accepted.sum() + " but " + expectedRows + " rows stored");
+        }
+
+        // /stats must agree with the rows it aggregates
+        for (String machine : hotMachines) {
+            long events = 0;
+            long defects = 0;
+            for (EventDto e : rows.values()) {
+                if (!e.getMachineId().equals(machine)) continue;
+                events++;
+                if (e.getDefectCount() != -1) defects += e.getDefectCount();
+            }
+            String uri = "%s/stats?machineId=%s&start=%s&end=%s".formatted(
+                    baseUrl, machine, workload.windowStart(), workload.windowEnd());
+            String body = http.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            var stats = om.readTree(body);
+            if (stats.path("eventsCount").asLong() != events || stats.path("defectsCount").asLong() != defects) {
+                problems.add("/stats " + machine + " = " + body + ", export says events=" + events + " defects=" + defects);
+            }
+        }
+        return problems;
+    }
+
+    private static boolean same(EventDto row, Workload.Payload p) {
+        return row.getFactoryId().equals(p.factoryId())
+                && row.getLineId().equals(p.lineId())
+                && row.getMachineId().equals(p.machineId())
+                && row.getEventTime().equals(p.eventTime())
+                && row.getDurationMs() == p.durationMs()
+                && row.getDefectCount() == p.defectCount();
+    }
+}
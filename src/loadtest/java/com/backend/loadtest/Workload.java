@@ -0,0 +1,164 @@
+package com.backend.loadtest;
+
+import com.backend.dto.EventIngestRequest;
+import com.backend.loadtest.LoadTestOptions.Op;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic request sequence.
+ *
+ * {@link #next()} draws the operation of each arrival from one seeded generator, so the
+ * same options replay the same requests in the same order. Event payloads are a pure
+ * function of (batch, event, version), which lets the verifier recompute them.
+ *
+ * NEW       a fresh batch, version 0
+ * DUPLICATE an exact resend of one of the 3 most recent batches (client retry storm)
+ * UPDATE    a resend of any earlier batch with a new payload version (late correction)
+ * STATS     /stats for a machine (hot-biased) or /stats/top-defect-lines for a factory
+ *
+ * One event in 100 has a negative duration and must always be rejected.
+ */
+final class Workload {
+
+    static final int INVALID_EVERY = 100;
+
+    /**
+     * {@code statsUri}: path and query of a STATS arrival, null otherwise.
+     */
+    record Planned(Op op, int batch, int version, String statsUri) {}
+
+    record Payload(String factoryId, String lineId, String machineId, Instant eventTime, long durationMs, int defectCount) {}
+
+    private final LoadTestOptions options;
+    private final String runId;
+    private final Instant eventBase;
+    private final SplittableRandom rnd;
+    private final int[] mixTable;
+    private final List<Integer> latestVersion = new ArrayList<>();
+    private int nextVersion = 1;
+
+    Workload(LoadTestOptions options, String runId, Instant eventBase) {
+        this.options = options;
+        this.runId = runId;
+        this.eventBase = eventBase;
+        this.rnd = new SplittableRandom(options.seed());
+
+        int total = options.mix().values().stream().mapToInt(Integer::intValue).sum();
+        mixTable = new int[total];
+        int i = 0;
+        for (Map.Entry<Op, Integer> e : options.mix().entrySet()) {
+            for (int w = 0; w < e.getValue(); w++) mixTable[i++] = e.getKey().ordinal();
+        }
+    }
+
+    /**
+     * Next arrival. Only ever called from the dispatcher thread.
+     */
+    Planned next() {
+        Op op = Op.values()[mixTable[rnd.nextInt(mixTable.length)]];
+        int batches = latestVersion.size();
+        if (batches == 0 && op != Op.STATS) op = Op.NEW;
+
+        switch (op) {
+            case NEW -> {
+                latestVersion.add(0);
+                return new Planned(op, batches, 0, null);
+            }
+            case DUPLICATE -> {
+                int b = batches - 1 - rnd.nextInt(Math.min(3, batches));
+                return new Planned(op, b, latestVersion.get(b), null);
+            }
+            case UPDATE -> {
+                int b = rnd.nextInt(batches);
+                int v = nextVersion++;
+                latestVersion.set(b, v);
+                return new Planned(op, b, v, null);
+            }
+            default -> {
+                String uri = rnd.nextBoolean()
+                        ? "/stats?machineId=%s&start=%s&end=%s"
+                            .formatted(machineId(pickMachine(rnd)), windowStart(), windowEnd())
+                        : "/stats/top-defect-lines?factoryId=%s&from=%s&to=%s"
+                            .formatted(factoryId(rnd.nextInt(options.factories())), windowStart(), windowEnd());
+                return new Planned(op, -1, 0, uri);
+            }
+        }
+    }
+
+    int batches() {
+        return latestVersion.size();
+    }
+
+    int batchSize() {
+        return options.batchSize();
+    }
+
+    List<EventIngestRequest> batch(int batch, int version) {
+        List<EventIngestRequest> out = new ArrayList<>(options.batchSize());
+        for (int j = 0; j < options.batchSize(); j++) {
+            Payload p = payload(batch, j, version);
+            out.add(EventIngestRequest.builder()
+                    .eventId(eventId(batch, j))
+                    .factoryId(p.factoryId())
+                    .lineId(p.lineId())
+                    .machineId(p.machineId())
+                    .eventTime(p.eventTime())
+                    .durationMs(p.durationMs())
+                    .defectCount(p.defectCount())
+                    .build());
+        }
+        return out;
+    }
+
+    Payload payload(int batch, int event, int version) {
+        // Placement and event time never change; the version only moves duration and defects
+        SplittableRandom r = new SplittableRandom(options.seed() * 1_000_003L + batch * 65_537L + event);
+        int machine = pickMachine(r);
+        Instant eventTime = eventBase.minusMillis(r.nextLong(3_600_000));
+        long baseDuration = r.nextLong(10_000);
+        int baseDefects = r.nextInt(6);
+
+        long duration = isInvalid(event) ? -1 : (baseDuration + version * 997L) % 20_000;
+        int defects = (baseDefects + version) % 6 - 1;
+        int factory = machine % options.factories();
+        return new Payload(factoryId(factory), factoryId(factory) + "-L" + (machine % 3), machineId(machine),
+                eventTime, duration, defects);
+    }
+
+    static boolean isInvalid(int event) {
+        return event % INVALID_EVERY == INVALID_EVERY - 1;
+    }
+
+    String eventId(int batch, int event) {
+        return runId + "-" + batch + "-" + event;
+    }
+
+    String factoryId(int factory) {
+        return "LT" + runId + "-F" + factory;
+    }
+
+    String machineId(int machine) {
+        return "LT" + runId + "-M" + machine;
+    }
+
+    /**
+     * Stats and export window covering every generated event time.
+     */
+    Instant windowStart() {
+        return eventBase.minusSeconds(7200);
+    }
+
+    Instant windowEnd() {
+        return eventBase.plusSeconds(3600);
+    }
+
+    private int pickMachine(SplittableRandom r) {
+        int hot = options.hotMachines();
+        if (hot > 0 && r.nextDouble() < options.hotShare()) return r.nextInt(hot);
+        return hot + r.nextInt(options.machines() - hot);
+    }
+}
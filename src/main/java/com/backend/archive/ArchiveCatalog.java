@@ -0,0 +1,268 @@
+package com.backend.archive;
+
+import com.backend.dao.EventStatsDao.LineStats;
+import com.backend.dao.EventStatsDao.MachineStats;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The cold tier: archive files on local disk, their headers kept in memory.
+ *
+ * Every event lives either in the event table or in exactly one archive file. The
+ * horizon is the event time below which ingest no longer writes to the table: it is
+ * raised (and persisted) before the archiver moves anything below it, so a resent event
+ * can never come back as a second copy.
+ *
+ * A query spanning both tiers runs its SQL and its file scans under the read lock; the
+ * archiver commits a chunk and publishes its files under the write lock. A reader thus
+ * sees a chunk either still in the table or already in the archive, never both or neither.
+ *
+ * Inflated stats columns are kept in an LRU cache bounded by {@code cacheBytes}, keyed by
+ * path: a published file never changes, so an entry never goes stale.
+ */
+@Slf4j
+public class ArchiveCatalog {
+
+    private static final String HORIZON_FILE = "horizon";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Instant horizon;
+
+    private final long cacheBytes;
+    // Access order; guarded by itself
+    private final LinkedHashMap<Path, ArchiveFile.Columns> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    private final AtomicLong inflations = new AtomicLong();
+
+    record Entry(Path path, ArchiveFile.Header header) {}
+
+    private ArchiveCatalog(boolean enabled, Path directory, long cacheBytes) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.cacheBytes = cacheBytes;
+    }
+
+    /**
+     * Opens (creating if needed) the archive under {@code directory} and reads every file
+     * header. Up to {@code cacheBytes} of inflated columns stay in memory between queries.
+     */
+    public static ArchiveCatalog open(Path directory, long cacheBytes) {
+        ArchiveCatalog catalog = new ArchiveCatalog(true, directory, cacheBytes);
+        try {
+            Files.createDirectories(directory);
+            Path horizonFile = directory.resolve(HORIZON_FILE);
+            if (Files.exists(horizonFile)) {
+                catalog.horizon = Instant.parse(Files.readString(horizonFile).trim());
+            }
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path p : files.filter(f -> f.toString().endsWith(ArchiveFile.SUFFIX)).toList()) {
+                    catalog.entries.add(new Entry(p, ArchiveFile.readHeader(p)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open event archive " + directory, e);
+        }
+        log.info("Event archive {}: {} files, horizon {}", directory, catalog.entries.size(), catalog.horizon);
+        return catalog;
+    }
+
+    public static ArchiveCatalog disabled() {
+        return new ArchiveCatalog(false, null, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    public Instant horizon() {
+        return horizon;
+    }
+
+    /**
+     * Whether ingest must refuse {@code eventTime}: its day may already be archived.
+     */
+    public boolean isArchived(Instant eventTime) {
+        Instant h = horizon;
+        return enabled && h != null && eventTime.isBefore(h);
+    }
+
+    /**
+     * Whether a window starting at {@code from} can include archived events.
+     */
+    public boolean overlaps(Instant from) {
+        return isArchived(from);
+    }
+
+    /**
+     * Raises the horizon to {@code cutoff} (never lowers it) and persists it atomically.
+     * Returns the effective horizon.
+     */
+    synchronized Instant advanceHorizon(Instant cutoff) throws IOException {
+        if (horizon != null && !cutoff.isAfter(horizon)) return horizon;
+        Path tmp = directory.resolve(HORIZON_FILE + ArchiveFile.TMP_SUFFIX);
+        Files.writeString(tmp, cutoff.toString(), StandardCharsets.UTF_8);
+        Files.move(tmp, directory.resolve(HORIZON_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        horizon = cutoff;
+        return cutoff;
+    }
+
+    /**
+     * Runs {@code query} (SQL plus archive scans) as one consistent read of both tiers.
+     */
+    public <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code commit} and then makes the committed temp files visible, excluding readers.
+     */
+    void publish(SqlAction commit, List<Path> tmpFiles) throws Exception {
+        lock.writeLock().lock();
+        try {
+            commit.run();
+            for (Path tmp : tmpFiles) add(tmp);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @FunctionalInterface
+    interface SqlAction {
+        void run() throws Exception;
+    }
+
+    /**
+     * Renames a committed temp file to its final name and registers it.
+     */
+    void add(Path tmp) throws IOException {
+        String name = tmp.getFileName().toString();
+        Path target = tmp.resolveSibling(name.substring(0, name.length() - ArchiveFile.TMP_SUFFIX.length()));
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        entries.add(new Entry(target, ArchiveFile.readHeader(target)));
+    }
+
+    int fileCount() {
+        return entries.size();
+    }
+
+    /**
+     * Archived events and known defects of {@code machineId} in [from, to). Files are
+     * pruned on their time range and machine-id set before anything is inflated.
+     */
+    public MachineStats machineStats(String machineId, Instant from, Instant to) {
+        long lo = from.toEpochMilli();
+        long hi = to.toEpochMilli();
+        long count = 0;
+        long defects = 0;
+        for (Entry e : entries) {
+            ArchiveFile.Header h = e.header();
+            if (!h.overlaps(lo, hi) || !h.hasMachine(machineId)) continue;
+            int code = Collections.binarySearch(h.machines(), machineId);
+            ArchiveFile.Columns c = columns(e);
+            for (int i = 0; i < h.rows(); i++) {
+                long t = c.eventTime()[i];
+                if (c.machine()[i] == code && t >= lo && t < hi) {
+                    count++;
+                    int d = c.defects()[i];
+                    defects += d == -1 ? 0 : d;
+                }
+            }
+        }
+        return new MachineStats(count, defects);
+    }
+
+    /**
+     * Per-line partial aggregates of {@code factoryId} in [from, to) over the archive,
+     * unordered and unlimited (they are merged with the table's partials).
+     */
+    public List<LineStats> lineStats(String factoryId, Instant from, Instant to) {
+        long lo = from.toEpochMilli();
+        long hi = to.toEpochMilli();
+        Map<String, long[]> byLine = new HashMap<>();
+        for (Entry e : entries) {
+            ArchiveFile.Header h = e.header();
+            if (!h.factoryId().equals(factoryId) || !h.overlaps(lo, hi)) continue;
+            ArchiveFile.Columns c = columns(e);
+            long[] counts = new long[h.lines().size()];
+            long[] sums = new long[h.lines().size()];
+            for (int i = 0; i < h.rows(); i++) {
+                long t = c.eventTime()[i];
+                if (t >= lo && t < hi) {
+                    int d = c.defects()[i];
+                    counts[c.line()[i]]++;
+                    sums[c.line()[i]] += d == -1 ? 0 : d;
+                }
+            }
+            for (int l = 0; l < counts.length; l++) {
+                if (counts[l] == 0) continue;
+                long[] acc = byLine.computeIfAbsent(h.lines().get(l), k -> new long[2]);
+                acc[0] += counts[l];
+                acc[1] += sums[l];
+            }
+        }
+        List<LineStats> out = new ArrayList<>(byLine.size());
+        byLine.forEach((line, acc) -> out.add(new LineStats(line, acc[0], acc[1])));
+        return out;
+    }
+
+    /**
+     * The stats columns of {@code e}, from the cache or inflated (outside the cache lock, so
+     * concurrent queries inflate different files in parallel; a race only inflates twice).
+     */
+    private ArchiveFile.Columns columns(Entry e) {
+        synchronized (cache) {
+            ArchiveFile.Columns cached = cache.get(e.path());
+            if (cached != null) return cached;
+        }
+        ArchiveFile.Columns c;
+        try {
+            c = ArchiveFile.readColumns(e.path(), false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read archive file " + e.path(), ex);
+        }
+        inflations.incrementAndGet();
+
+        long bytes = (long) e.header().rows() * ArchiveFile.STATS_BYTES_PER_ROW;
+        if (bytes > cacheBytes) return c;
+        synchronized (cache) {
+            if (cache.putIfAbsent(e.path(), c) == null) {
+                cachedBytes += bytes;
+                Iterator<Map.Entry<Path, ArchiveFile.Columns>> lru = cache.entrySet().iterator();
+                while (cachedBytes > cacheBytes) {
+                    cachedBytes -= (long) lru.next().getValue().eventTime().length * ArchiveFile.STATS_BYTES_PER_ROW;
+                    lru.remove();
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Number of file reads so far, i.e. cache misses.
+     */
+    long inflations() {
+        return inflations.get();
+    }
+}
@@ -0,0 +1,198 @@
+package com.backend.archive;
+
+import com.backend.dao.EventBatchDao.EventRow;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Layout of one immutable archive file: the events of one (UTC day, factory) moved by one
+ * archiver chunk.
+ *
+ * Header, uncompressed so the catalog can prune without inflating anything:
+ *   magic, version, day, factoryId, rows, min/max event time,
+ *   sorted line ids, sorted machine ids (also the dictionaries of the columns)
+ * Body, one deflate stream, column after column, rows sorted by (machine, event time):
+ *   machine code, line code, event time (delta from the previous row), defect count,
+ *   duration, received time (delta from event time), event id
+ *
+ * Sorting by machine turns the machine column into long runs and the time deltas into
+ * small numbers, which is what deflate compresses well. The stats columns come first, so
+ * a scan stops inflating before the durations and ids.
+ */
+final class ArchiveFile {
+
+    static final String SUFFIX = ".fea";
+    static final String TMP_SUFFIX = ".tmp";
+
+    private static final int MAGIC = 0x46455641; // "FEVA"
+    private static final short VERSION = 1;
+
+    private ArchiveFile() {}
+
+    record Header(LocalDate day, String factoryId, int rows, long minEventTime, long maxEventTime,
+                  List<String> lines, List<String> machines) {
+
+        boolean overlaps(long fromMillis, long toMillis) {
+            return maxEventTime >= fromMillis && minEventTime < toMillis;
+        }
+
+        boolean hasMachine(String machineId) {
+            return Collections.binarySearch(machines, machineId) >= 0;
+        }
+    }
+
+    // Heap taken by one row of the stats columns (machine, line, eventTime, defects)
+    static final int STATS_BYTES_PER_ROW = 3 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * Decoded columns; durations, received times and ids only when read in full.
+     */
+    record Columns(int[] machine, int[] line, long[] eventTime, int[] defects,
+                   long[] duration, long[] receivedTime, String[] eventIds) {}
+
+    /**
+     * Writes {@code rows} (all of {@code day} and {@code factoryId}) to {@code target} and
+     * forces it to disk.
+     */
+    static Header write(Path target, LocalDate day, String factoryId, List<EventRow> rows) throws IOException {
+        List<String> lines = rows.stream().map(EventRow::lineId).distinct().sorted().toList();
+        List<String> machines = rows.stream().map(EventRow::machineId).distinct().sorted().toList();
+        List<EventRow> sorted = rows.stream()
+                .sorted(Comparator.comparing(EventRow::machineId).thenComparing(EventRow::eventTime))
+                .toList();
+        long min = rows.stream().mapToLong(r -> r.eventTime().toEpochMilli()).min().orElseThrow();
+        long max = rows.stream().mapToLong(r -> r.eventTime().toEpochMilli()).max().orElseThrow();
+        Header header = new Header(day, factoryId, rows.size(), min, max, lines, machines);
+
+        try (FileOutputStream file = new FileOutputStream(target.toFile())) {
+            BufferedOutputStream buffered = new BufferedOutputStream(file, 1 << 16);
+            DataOutputStream out = new DataOutputStream(buffered);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt((int) day.toEpochDay());
+            out.writeUTF(factoryId);
+            out.writeInt(rows.size());
+            out.writeLong(min);
+            out.writeLong(max);
+            writeStrings(out, lines);
+            writeStrings(out, machines);
+            out.flush();
+
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                DeflaterOutputStream compressed = new DeflaterOutputStream(buffered, deflater, 1 << 16);
+                DataOutputStream body = new DataOutputStream(compressed);
+                for (EventRow r : sorted) body.writeInt(Collections.binarySearch(machines, r.machineId()));
+                for (EventRow r : sorted) body.writeInt(Collections.binarySearch(lines, r.lineId()));
+                long previous = min;
+                for (EventRow r : sorted) {
+                    long t = r.eventTime().toEpochMilli();
+                    body.writeLong(t - previous);
+                    previous = t;
+                }
+                for (EventRow r : sorted) body.writeInt(r.defectCount());
+                for (EventRow r : sorted) body.writeLong(r.durationMs());
+                for (EventRow r : sorted) body.writeLong(r.receivedTime().toEpochMilli() - r.eventTime().toEpochMilli());
+                for (EventRow r : sorted) body.writeUTF(r.eventId());
+                body.flush();
+                compressed.finish();
+            } finally {
+                deflater.end();
+            }
+            buffered.flush();
+            file.getFD().sync();
+        }
+        return header;
+    }
+
+    static Header readHeader(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return readHeader(in, path);
+        }
+    }
+
+    /**
+     * Reads the stats columns, or every column when {@code full}.
+     */
+    static Columns readColumns(Path path, boolean full) throws IOException {
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            DataInputStream in = new DataInputStream(file);
+            Header header = readHeader(in, path);
+            int n = header.rows();
+            DataInputStream body = new DataInputStream(new BufferedInputStream(new InflaterInputStream(file), 1 << 16));
+
+            int[] machine = readInts(body, n);
+            int[] line = readInts(body, n);
+            long[] eventTime = new long[n];
+            long t = header.minEventTime();
+            for (int i = 0; i < n; i++) {
+                t += body.readLong();
+                eventTime[i] = t;
+            }
+            int[] defects = readInts(body, n);
+            if (!full) return new Columns(machine, line, eventTime, defects, null, null, null);
+
+            long[] duration = new long[n];
+            for (int i = 0; i < n; i++) duration[i] = body.readLong();
+            long[] received = new long[n];
+            for (int i = 0; i < n; i++) received[i] = eventTime[i] + body.readLong();
+            String[] ids = new String[n];
+            for (int i = 0; i < n; i++) ids[i] = body.readUTF();
+            return new Columns(machine, line, eventTime, defects, duration, received, ids);
+        }
+    }
+
+    /**
+     * All rows of the file, for recovery and tests.
+     */
+    static List<EventRow> readRows(Path path) throws IOException {
+        Header header = readHeader(path);
+        Columns c = readColumns(path, true);
+        List<EventRow> out = new ArrayList<>(header.rows());
+        for (int i = 0; i < header.rows(); i++) {
+            out.add(new EventRow(c.eventIds()[i], header.factoryId(), header.lines().get(c.line()[i]),
+                    header.machines().get(c.machine()[i]), Instant.ofEpochMilli(c.eventTime()[i]),
+                    Instant.ofEpochMilli(c.receivedTime()[i]), c.duration()[i], c.defects()[i]));
+        }
+        return out;
+    }
+
+    private static Header readHeader(DataInputStream in, Path path) throws IOException {
+        if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+            throw new IOException("Not an event archive file: " + path);
+        }
+        LocalDate day = LocalDate.ofEpochDay(in.readInt());
+        String factoryId = in.readUTF();
+        int rows = in.readInt();
+        long min = in.readLong();
+        long max = in.readLong();
+        List<String> lines = readStrings(in);
+        List<String> machines = readStrings(in);
+        return new Header(day, factoryId, rows, min, max, lines, machines);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String v : values) out.writeUTF(v);
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<String> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(in.readUTF());
+        return List.copyOf(out);
+    }
+
+    private static int[] readInts(DataInputStream in, int n) throws IOException {
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) out[i] = in.readInt();
+        return out;
+    }
+}
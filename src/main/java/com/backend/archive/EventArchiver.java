@@ -0,0 +1,320 @@
+package com.backend.archive;
+
+import com.backend.dao.EventBatchDao.EventRow;
+import com.backend.dao.EventShards;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+
+/**
+ * Moves events older than {@code minAge} from the event table (every shard) into the
+ * {@link ArchiveCatalog}, one bounded chunk per transaction.
+ *
+ * Per chunk, on one shard:
+ *  1. lock up to chunkRows old rows (FOR UPDATE SKIP LOCKED: never waits on ingest);
+ *  2. write one temp file per (UTC day, factory) and fsync it;
+ *  3. delete the rows;
+ *  4. under the catalog write lock: commit, then rename the temp files into place.
+ *
+ * A crash between 4's commit and rename leaves temp files whose rows are gone from the
+ * table; a crash before the commit leaves temp files whose rows are all still there.
+ * {@link #recover()} tells the two apart at startup and renames or deletes them.
+ *
+ * One race is left open: a resend of an event validated just before a pass raises the
+ * horizon over it, and inserted after that pass deleted the original, becomes a second
+ * copy. minAge is meant to be far beyond any resend delay.
+ *
+ * The chunk query has no ORDER BY: a sequential scan that stops after chunkRows matches,
+ * which on an append-mostly table finds the old rows at the start of the heap.
+ */
+@Slf4j
+public class EventArchiver implements DisposableBean {
+
+    private static final String CHUNK_SQL = """
+        SELECT event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count
+        FROM event
+        WHERE event_time < ?
+        LIMIT ?
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String DELETE_SQL = "DELETE FROM event WHERE event_id = ANY(?)";
+    private static final String DELETE_DIRECTORY_SQL = "DELETE FROM event_directory WHERE event_id = ANY(?)";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM event WHERE event_id = ANY(?)";
+
+    private final ArchiveCatalog catalog;
+    private final EventShards shards;
+    private final Duration minAge;
+    private final int chunkRows;
+    private final Clock clock;
+    private final AtomicLong fileSeq = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    public EventArchiver(ArchiveCatalog catalog, EventShards shards, Duration minAge, int chunkRows, Clock clock) {
+        this.catalog = catalog;
+        this.shards = shards;
+        this.minAge = minAge;
+        this.chunkRows = chunkRows;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs {@link #archive()} every {@code interval} on a daemon thread.
+     */
+    public void schedule(Duration interval) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "event-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archive();
+            } catch (RuntimeException e) {
+                log.warn("Archive pass failed; retrying in {}", interval, e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * One pass: raises the horizon to now - minAge, then moves every row below it.
+     * Returns the number of events moved (0 with the archive disabled).
+     */
+    public synchronized long archive() {
+        if (!catalog.isEnabled()) return 0;
+        Instant cutoff;
+        try {
+            cutoff = catalog.advanceHorizon(clock.instant().minus(minAge).truncatedTo(ChronoUnit.MILLIS));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot persist archive horizon", e);
+        }
+
+        long moved = 0;
+        long start = System.nanoTime();
+        for (EventShards.Shard shard : shards.all()) {
+            int n;
+            do {
+                n = moveChunk(shard, cutoff);
+                moved += n;
+            } while (n == chunkRows);
+        }
+        if (moved > 0) {
+            log.info("Archived {} events below {} in {} ms", moved, cutoff,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return moved;
+    }
+
+    private int moveChunk(EventShards.Shard shard, Instant cutoff) {
+        List<EventRow> rows = shard.jdbc().execute((ConnectionCallback<List<EventRow>>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            List<Path> tmpFiles = new ArrayList<>();
+            boolean[] committed = {false};
+            try {
+                List<EventRow> chunk = lockChunk(con, cutoff);
+                if (chunk.isEmpty()) {
+                    con.rollback();
+                    return chunk;
+                }
+                tmpFiles.addAll(writeFiles(shard.index(), chunk));
+                try (PreparedStatement ps = con.prepareStatement(DELETE_SQL)) {
+                    ps.setArray(1, con.createArrayOf("varchar", ids(chunk)));
+                    ps.executeUpdate();
+                }
+                catalog.publish(() -> {
+                    con.commit();
+                    committed[0] = true;
+                }, tmpFiles);
+                return chunk;
+            } catch (Exception e) {
+                if (committed[0]) {
+                    // The rows are gone from the table: the temp files are now the only copy
+                    log.error("Archive chunk committed but not published; recover() renames it at next start", e);
+                } else {
+                    con.rollback();
+                    deleteQuietly(tmpFiles);
+                }
+                if (e instanceof SQLException sql) throw sql;
+                if (e instanceof RuntimeException re) throw re;
+                throw new IllegalStateException("Archive chunk failed on shard " + shard.index(), e);
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        });
+
+        if (shards.isSharded() && !rows.isEmpty()) forgetDirectoryEntries(rows);
+        return rows.size();
+    }
+
+    private List<EventRow> lockChunk(Connection con, Instant cutoff) throws SQLException {
+        List<EventRow> out = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(CHUNK_SQL)) {
+            ps.setTimestamp(1, Timestamp.from(cutoff));
+            ps.setInt(2, chunkRows);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new EventRow(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getTimestamp(5).toInstant(), rs.getTimestamp(6).toInstant(), rs.getLong(7), rs.getInt(8)));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * One temp file per (UTC day, factory): {@code <dir>/<day>/<factory>/part-<millis>-s<shard>-<seq>.fea.tmp}.
+     */
+    private List<Path> writeFiles(int shard, List<EventRow> chunk) throws IOException {
+        Map<LocalDate, Map<String, List<EventRow>>> partitions = new TreeMap<>();
+        for (EventRow r : chunk) {
+            LocalDate day = LocalDate.ofInstant(r.eventTime(), ZoneOffset.UTC);
+            partitions.computeIfAbsent(day, d -> new TreeMap<>()).computeIfAbsent(r.factoryId(), f -> new ArrayList<>()).add(r);
+        }
+
+        List<Path> out = new ArrayList<>();
+        try {
+            for (var byDay : partitions.entrySet()) {
+                for (var byFactory : byDay.getValue().entrySet()) {
+                    Path dir = catalog.directory()
+                            .resolve(byDay.getKey().toString())
+                            .resolve(URLEncoder.encode(byFactory.getKey(), StandardCharsets.UTF_8));
+                    Files.createDirectories(dir);
+                    Path tmp = dir.resolve("part-" + clock.millis() + "-s" + shard + "-" + fileSeq.incrementAndGet()
+                            + ArchiveFile.SUFFIX + ArchiveFile.TMP_SUFFIX);
+                    out.add(tmp);
+                    ArchiveFile.write(tmp, byDay.getKey(), byFactory.getKey(), byFactory.getValue());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(out);
+            throw e;
+        }
+        return out;
+    }
+
+    /**
+     * Sharded mode: drops the event_directory entries of moved events. Best effort, after
+     * the move committed; a leftover entry only makes a later claim of the id a no-op update.
+     */
+    private void forgetDirectoryEntries(List<EventRow> rows) {
+        Map<Integer, List<String>> byDirectory = new TreeMap<>();
+        for (EventRow r : rows) {
+            byDirectory.computeIfAbsent(shards.shardForEvent(r.eventId()), k -> new ArrayList<>()).add(r.eventId());
+        }
+        byDirectory.forEach((index, ids) -> {
+            try {
+                shards.get(index).jdbc().execute((ConnectionCallback<Integer>) con -> {
+                    try (PreparedStatement ps = con.prepareStatement(DELETE_DIRECTORY_SQL)) {
+                        ps.setArray(1, con.createArrayOf("varchar", ids.toArray(String[]::new)));
+                        return ps.executeUpdate();
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not drop {} directory entries on shard {}", ids.size(), index, e);
+            }
+        });
+    }
+
+    /**
+     * Settles the temp files of an interrupted pass. The chunk's rows were locked until the
+     * commit and ingest refuses event times below the horizon, so either all of a file's
+     * rows are still in the table (not committed: delete the file) or none of them is
+     * (committed: rename it into place).
+     */
+    public void recover() {
+        List<Path> tmpFiles;
+        try (Stream<Path> files = Files.walk(catalog.directory())) {
+            tmpFiles = files.filter(f -> f.toString().endsWith(ArchiveFile.SUFFIX + ArchiveFile.TMP_SUFFIX)).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list event archive " + catalog.directory(), e);
+        }
+
+        for (Path tmp : tmpFiles) {
+            try {
+                int shard = shardOf(tmp);
+                if (shard < 0 || shard >= shards.size()) {
+                    log.warn("Leaving {}: shard {} is not configured", tmp, shard);
+                    continue;
+                }
+                List<EventRow> rows;
+                try {
+                    rows = ArchiveFile.readRows(tmp);
+                } catch (IOException e) {
+                    // Never completely written, so never committed
+                    log.warn("Deleting unreadable temp archive file {}", tmp);
+                    Files.delete(tmp);
+                    continue;
+                }
+                String[] ids = ids(rows);
+                Long present = shards.get(shard).jdbc().execute((ConnectionCallback<Long>) con -> {
+                    try (PreparedStatement ps = con.prepareStatement(COUNT_SQL)) {
+                        ps.setArray(1, con.createArrayOf("varchar", ids));
+                        try (ResultSet rs = ps.executeQuery()) {
+                            rs.next();
+                            return rs.getLong(1);
+                        }
+                    }
+                });
+                if (present != null && present == rows.size()) {
+                    log.info("Deleting {}: its chunk was not committed", tmp);
+                    Files.delete(tmp);
+                } else {
+                    log.info("Publishing {}: its chunk was committed", tmp);
+                    catalog.add(tmp);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot recover " + tmp, e);
+            }
+        }
+    }
+
+    private static int shardOf(Path tmp) {
+        String name = tmp.getFileName().toString();
+        int s = name.indexOf("-s");
+        int end = name.indexOf('-', s + 2);
+        try {
+            return Integer.parseInt(name.substring(s + 2, end));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static void deleteQuietly(List<Path> files) {
+        for (Path f : files) {
+            try {
+                Files.deleteIfExists(f);
+            } catch (IOException e) {
+                log.warn("Could not delete {}; recover() removes it at next start", f, e);
+            }
+        }
+    }
+
+    private static String[] ids(List<EventRow> rows) {
+        return rows.stream().map(EventRow::eventId).toArray(String[]::new);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package com.backend.backfill;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only progress log of one input file.
+ *
+ *   v1 <file size> <file mtime millis> <chunk bytes>
+ *   <chunk start> <offset loaded through>
+ *   ...
+ *
+ * A line is appended and forced to disk after every committed batch, so a restart
+ * resends at most the batch that was in flight (its events dedupe). The header pins the
+ * chunk layout and refuses a file that changed since the first run.
+ */
+final class BackfillCheckpoint implements Closeable {
+
+    private static final String VERSION = "v1";
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long chunkBytes;
+    private final Map<Long, Long> loaded;
+
+    private BackfillCheckpoint(Path path, FileChannel channel, long chunkBytes, Map<Long, Long> loaded) {
+        this.path = path;
+        this.channel = channel;
+        this.chunkBytes = chunkBytes;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Opens the checkpoint of {@code file} under {@code directory}, creating it with
+     * {@code chunkBytes} on the first run; later runs keep the chunk size they started with.
+     */
+    static BackfillCheckpoint open(Path directory, Path file, long chunkBytes) throws IOException {
+        Path path = pathFor(directory, file);
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        Map<Long, Long> loaded = new HashMap<>();
+
+        if (Files.exists(path)) {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            String[] header = lines.isEmpty() ? new String[0] : lines.get(0).split(" ");
+            if (header.length != 4 || !header[0].equals(VERSION)) {
+                throw new IllegalStateException("Unreadable backfill checkpoint " + path + "; delete it to start over");
+            }
+            if (Long.parseLong(header[1]) != size || Long.parseLong(header[2]) != modified) {
+                throw new IllegalStateException(file + " changed since its checkpoint " + path + "; delete it to start over");
+            }
+            chunkBytes = Long.parseLong(header[3]);
+            for (String line : lines.subList(1, lines.size())) {
+                String[] entry = line.split(" ");
+                try {
+                    loaded.merge(Long.parseLong(entry[0]), Long.parseLong(entry[1]), Math::max);
+                } catch (RuntimeException e) {
+                    // Torn last line of a crashed run: that batch is simply loaded again
+                }
+            }
+        }
+
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(path, channel, chunkBytes, loaded);
+        if (channel.size() == 0) {
+            checkpoint.append(VERSION + " " + size + " " + modified + " " + chunkBytes);
+        } else if (!endsWithNewline(path, channel.size())) {
+            checkpoint.append("");
+        }
+        return checkpoint;
+    }
+
+    static Path pathFor(Path directory, Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        return directory.resolve(absolute.getFileName() + "-" + Integer.toHexString(absolute.toString().hashCode()) + ".ckpt");
+    }
+
+    long chunkBytes() {
+        return chunkBytes;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Where loading of the chunk starting at {@code chunkStart} resumes.
+     */
+    long resumeOffset(long chunkStart) {
+        return loaded.getOrDefault(chunkStart, chunkStart);
+    }
+
+    /**
+     * Records that the chunk starting at {@code chunkStart} is committed through {@code offset}.
+     */
+    synchronized void record(long chunkStart, long offset) throws IOException {
+        append(chunkStart + " " + offset);
+    }
+
+    private void append(String line) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) channel.write(buf);
+        channel.force(false);
+    }
+
+    private static boolean endsWithNewline(Path path, long size) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            in.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
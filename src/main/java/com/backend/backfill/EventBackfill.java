@@ -0,0 +1,222 @@
+package com.backend.backfill;
+
+import com.backend.dto.BatchIngestResponse;
+import com.backend.dto.EventIngestRequest;
+import com.backend.dto.RejectionDto;
+import com.backend.dto.RejectionReason;
+import com.backend.service.EventService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk load of event files through {@link EventService#ingestRecorded}: the same rejection
+ * rules, dedupe/update semantics and metrics as POST /events/batch, without HTTP and JSON
+ * arrays in between. Records keep their receivedTime, so chunks may commit in any order.
+ *
+ * Every file is cut into line-aligned chunks; {@code parallelism} workers each map one
+ * chunk, parse it and ingest it in batches of {@code batchSize}, one transaction each.
+ * After every batch the chunk's offset goes to the file's {@link BackfillCheckpoint}, so
+ * a rerun with the same files skips what was committed.
+ */
+@Slf4j
+public class EventBackfill {
+
+    private static final int LOGGED_REJECTIONS = 20;
+
+    private final EventService eventService;
+    private final ObjectMapper objectMapper;
+    private final int parallelism;
+    private final int batchSize;
+    private final long chunkBytes;
+    private final Path checkpointDirectory;
+    private final Duration reportInterval;
+
+    public EventBackfill(EventService eventService, ObjectMapper objectMapper, int parallelism, int batchSize,
+                         long chunkBytes, Path checkpointDirectory, Duration reportInterval) {
+        this.eventService = eventService;
+        this.objectMapper = objectMapper;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.chunkBytes = chunkBytes;
+        this.checkpointDirectory = checkpointDirectory;
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * Outcome of one run; records already loaded by an earlier run are not counted.
+     */
+    public record Report(long records, long accepted, long updated, long deduped, long rejected,
+                         Map<RejectionReason, Long> rejections, Duration elapsed) {
+
+        public double recordsPerSecond() {
+            return elapsed.isZero() ? 0 : records * 1e9 / elapsed.toNanos();
+        }
+    }
+
+    /**
+     * Loads {@code files} and returns once every chunk is committed. The first failing
+     * batch stops the run; its checkpoint keeps everything committed before it.
+     */
+    public Report run(List<Path> files) throws IOException, InterruptedException {
+        for (Path file : files) {
+            EventFileReader.Format.of(file);
+            if (!Files.isRegularFile(file)) throw new IllegalArgumentException("Backfill file not found: " + file);
+        }
+        Files.createDirectories(checkpointDirectory);
+
+        Progress progress = new Progress();
+        List<BackfillCheckpoint> checkpoints = new ArrayList<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        long pending = 0;
+        try {
+            for (Path file : files) {
+                BackfillCheckpoint checkpoint = BackfillCheckpoint.open(checkpointDirectory, file, chunkBytes);
+                checkpoints.add(checkpoint);
+                EventFileReader reader = new EventFileReader(EventFileReader.Format.of(file), objectMapper);
+                for (EventFileReader.Chunk chunk : EventFileReader.chunks(file, checkpoint.chunkBytes())) {
+                    long from = checkpoint.resumeOffset(chunk.start());
+                    if (from >= chunk.end()) continue;
+                    pending += chunk.end() - from;
+                    tasks.add(() -> {
+                        load(reader, chunk, from, checkpoint, progress);
+                        return null;
+                    });
+                }
+            }
+            log.info("Backfill of {} files: {} chunks, {} MB to load with parallelism {}",
+                    files.size(), tasks.size(), pending >> 20, parallelism);
+            execute(tasks, progress);
+        } finally {
+            for (BackfillCheckpoint c : checkpoints) c.close();
+        }
+
+        Report report = progress.report();
+        log.info("Backfill done: {} records in {} s ({} records/s), accepted {}, updated {}, deduped {}, rejected {} {}",
+                report.records(), report.elapsed().toSeconds(), Math.round(report.recordsPerSecond()),
+                report.accepted(), report.updated(), report.deduped(), report.rejected(), report.rejections());
+        return report;
+    }
+
+    private void execute(List<Callable<Void>> tasks, Progress progress) throws IOException, InterruptedException {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+                r -> new Thread(r, "backfill-" + threads.incrementAndGet()));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "backfill-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(progress::log, reportInterval.toMillis(), reportInterval.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>(tasks.size());
+            for (Callable<Void> task : tasks) futures.add(workers.submit(task));
+            for (Future<Void> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException io) throw io;
+                    if (cause instanceof RuntimeException re) throw re;
+                    throw new IllegalStateException("Backfill worker failed", cause);
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+            reporter.shutdownNow();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void load(EventFileReader reader, EventFileReader.Chunk chunk, long from,
+                      BackfillCheckpoint checkpoint, Progress progress) throws IOException {
+        try (FileChannel ch = FileChannel.open(chunk.file(), StandardOpenOption.READ)) {
+            List<EventIngestRequest> batch = new ArrayList<>(batchSize);
+            reader.read(ch, from, chunk.end(), (request, next) -> {
+                if (request == null && progress.unparsed.incrementAndGet() <= LOGGED_REJECTIONS) {
+                    log.warn("Unparseable record in {} before offset {}", chunk.file(), next);
+                }
+                batch.add(request);
+                if (batch.size() == batchSize) {
+                    ingest(batch, progress);
+                    checkpoint.record(chunk.start(), next);
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) ingest(batch, progress);
+            checkpoint.record(chunk.start(), chunk.end());
+        }
+    }
+
+    private void ingest(List<EventIngestRequest> batch, Progress progress) throws IOException {
+        // Stop between batches once the run is failing
+        if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("Backfill interrupted");
+        BatchIngestResponse resp = eventService.ingestRecorded(batch);
+        progress.add(batch.size(), resp);
+        for (RejectionDto r : resp.getRejections()) {
+            if (progress.loggedRejections.incrementAndGet() > LOGGED_REJECTIONS) break;
+            log.warn("Rejected event {}: {}", r.getEventId(), r.getReason());
+        }
+    }
+
+    private static final class Progress {
+        private final long start = System.nanoTime();
+        private final LongAdder records = new LongAdder();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder updated = new LongAdder();
+        private final LongAdder deduped = new LongAdder();
+        private final Map<RejectionReason, LongAdder> rejections = new EnumMap<>(RejectionReason.class);
+        private final AtomicLong unparsed = new AtomicLong();
+        private final AtomicLong loggedRejections = new AtomicLong();
+        private long lastRecords;
+        private long lastNanos = start;
+
+        Progress() {
+            for (RejectionReason r : RejectionReason.values()) rejections.put(r, new LongAdder());
+        }
+
+        void add(int batchSize, BatchIngestResponse resp) {
+            records.add(batchSize);
+            accepted.add(resp.getAccepted());
+            updated.add(resp.getUpdated());
+            deduped.add(resp.getDeduped());
+            for (RejectionDto r : resp.getRejections()) rejections.get(r.getReason()).increment();
+        }
+
+        // Reporter thread only
+        void log() {
+            long now = System.nanoTime();
+            long n = records.sum();
+            double rate = (n - lastRecords) * 1e9 / Math.max(1, now - lastNanos);
+            lastRecords = n;
+            lastNanos = now;
+            Report r = report();
+            log.info("Backfill: {} records, {} records/s, accepted {}, updated {}, deduped {}, rejected {} {}",
+                    n, Math.round(rate), r.accepted(), r.updated(), r.deduped(), r.rejected(), r.rejections());
+        }
+
+        Report report() {
+            Map<RejectionReason, Long> byReason = new EnumMap<>(RejectionReason.class);
+            long rejected = 0;
+            for (var e : rejections.entrySet()) {
+                long n = e.getValue().sum();
+                if (n == 0) continue;
+                byReason.put(e.getKey(), n);
+                rejected += n;
+            }
+            return new Report(records.sum(), accepted.sum(), updated.sum(), deduped.sum(), rejected,
+                    byReason, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
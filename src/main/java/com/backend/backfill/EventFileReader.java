@@ -0,0 +1,185 @@
+package com.backend.backfill;
+
+import com.backend.dto.EventIngestRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits an input file into line-aligned chunks and parses the records of one chunk from
+ * a read-only mapping of it. One record per line, in the layout of /events/export:
+ * NDJSON objects, or CSV with the export header (optional) and RFC 4180 quoting.
+ * CSV fields spanning several lines are not supported.
+ */
+final class EventFileReader {
+
+    enum Format {
+        NDJSON, CSV;
+
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) return CSV;
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) return NDJSON;
+            throw new IllegalArgumentException("Unknown backfill file type (expected .ndjson, .jsonl, .json or .csv): " + file);
+        }
+    }
+
+    record Chunk(Path file, long start, long end) {}
+
+    @FunctionalInterface
+    interface RecordSink {
+        /**
+         * {@code request} is null for a line that does not parse; {@code next} is the file
+         * offset right after the line.
+         */
+        void accept(EventIngestRequest request, long next) throws IOException;
+    }
+
+    private static final String CSV_HEADER_PREFIX = "eventId,";
+    private static final int FIELDS = 8;
+
+    private final Format format;
+    private final ObjectMapper objectMapper;
+
+    EventFileReader(Format format, ObjectMapper objectMapper) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Cuts {@code file} every {@code chunkBytes}, each cut moved forward to the next line start.
+     */
+    static List<Chunk> chunks(Path file, long chunkBytes) throws IOException {
+        List<Chunk> out = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long start = 0;
+            while (start < size) {
+                long end = start + chunkBytes >= size ? size : nextLineStart(ch, start + chunkBytes, size);
+                out.add(new Chunk(file, start, end));
+                start = end;
+            }
+        }
+        return out;
+    }
+
+    private static long nextLineStart(FileChannel ch, long from, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long pos = from - 1;
+        while (pos < size) {
+            buf.clear();
+            int n = ch.read(buf, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    /**
+     * Parses every non-blank line of [from, end), in order.
+     */
+    void read(FileChannel ch, long from, long end, RecordSink sink) throws IOException {
+        MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, from, end - from);
+        byte[] line = new byte[1024];
+        int len = 0;
+        int limit = map.limit();
+        for (int i = 0; i < limit; i++) {
+            byte b = map.get(i);
+            boolean last = i == limit - 1;
+            if (b != '\n') {
+                if (len == line.length) line = Arrays.copyOf(line, len * 2);
+                line[len++] = b;
+                if (!last) continue;
+            }
+            if (len > 0 && line[len - 1] == '\r') len--;
+            if (len > 0) {
+                EventIngestRequest request = parse(line, len);
+                if (request != null || !isCsvHeader(line, len)) sink.accept(request, from + i + 1);
+            }
+            len = 0;
+        }
+    }
+
+    private EventIngestRequest parse(byte[] line, int len) {
+        if (format == Format.NDJSON) {
+            try {
+                return objectMapper.readValue(line, 0, len, EventIngestRequest.class);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return parseCsv(new String(line, 0, len, StandardCharsets.UTF_8));
+    }
+
+    private boolean isCsvHeader(byte[] line, int len) {
+        return format == Format.CSV
+                && new String(line, 0, Math.min(len, CSV_HEADER_PREFIX.length()), StandardCharsets.UTF_8)
+                        .equals(CSV_HEADER_PREFIX);
+    }
+
+    /**
+     * eventId,factoryId,lineId,machineId,eventTime,receivedTime,durationMs,defectCount.
+     * receivedTime may be empty; ingest then stamps the record on arrival.
+     */
+    static EventIngestRequest parseCsv(String line) {
+        List<String> f = splitCsv(line);
+        if (f == null || f.size() != FIELDS) return null;
+        try {
+            return EventIngestRequest.builder()
+                    .eventId(f.get(0))
+                    .factoryId(f.get(1))
+                    .lineId(f.get(2))
+                    .machineId(f.get(3))
+                    .eventTime(Instant.parse(f.get(4)))
+                    .receivedTime(f.get(5).isEmpty() ? null : Instant.parse(f.get(5)))
+                    .durationMs(Long.parseLong(f.get(6)))
+                    .defectCount(Integer.parseInt(f.get(7)))
+                    .build();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // RFC 4180 within one line; null on an unterminated quote
+    private static List<String> splitCsv(String line) {
+        List<String> out = new ArrayList<>(FIELDS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) return null;
+        out.add(field.toString());
+        return out;
+    }
+}
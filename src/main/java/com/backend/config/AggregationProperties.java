@@ -0,0 +1,23 @@
+package com.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cost guard of GET /stats/aggregate, checked against the planner estimate before running.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.aggregation")
+public class AggregationProperties {
+
+    /**
+     * Reject requests estimated to read more event rows than this (summed over shards).
+     */
+    private long maxScanRows = 5_000_000;
+
+    /**
+     * Reject requests estimated to produce more groups than this; also the largest page.
+     */
+    private int maxGroups = 10_000;
+}
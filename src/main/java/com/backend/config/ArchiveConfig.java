@@ -0,0 +1,52 @@
+package com.backend.config;
+
+import com.backend.archive.ArchiveCatalog;
+import com.backend.archive.EventArchiver;
+import com.backend.dao.EventShards;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({ArchiveProperties.class, BackfillProperties.class})
+public class ArchiveConfig {
+
+    @Bean
+    public ArchiveCatalog archiveCatalog(ArchiveProperties props) {
+        if (!props.isEnabled()) {
+            return ArchiveCatalog.disabled();
+        }
+        if (props.getMinAge().compareTo(Duration.ofDays(1)) < 0 || props.getChunkRows() <= 0) {
+            throw new IllegalStateException("app.archive.min-age must be >= 1d and app.archive.chunk-rows > 0");
+        }
+        if (props.getCacheSize().isNegative()) {
+            throw new IllegalStateException("app.archive.cache-size must be >= 0");
+        }
+        if (props.getDirectory() == null || props.getDirectory().toString().isBlank()) {
+            throw new IllegalStateException("app.archive.enabled=true but no app.archive.directory configured");
+        }
+        return ArchiveCatalog.open(props.getDirectory(), props.getCacheSize().toBytes());
+    }
+
+    /**
+     * Settles the temp files of an interrupted pass before anything reads the archive,
+     * then schedules the passes. A backfill process only reads the horizon: the server
+     * owns the archive directory. Decided here rather than by @Conditional, which an AOT
+     * build would freeze; the archiver of a process that does not own the archive stays idle.
+     */
+    @Bean
+    public EventArchiver eventArchiver(ArchiveProperties props, BackfillProperties backfill, ArchiveCatalog catalog,
+                                       EventShards eventShards, Clock clock) {
+        EventArchiver archiver = new EventArchiver(catalog, eventShards, props.getMinAge(), props.getChunkRows(), clock);
+        if (!catalog.isEnabled() || backfill.isEnabled()) {
+            return archiver;
+        }
+        archiver.recover();
+        if (props.getInterval().isPositive()) {
+            archiver.schedule(props.getInterval());
+        }
+        return archiver;
+    }
+}
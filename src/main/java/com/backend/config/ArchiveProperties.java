@@ -0,0 +1,45 @@
+package com.backend.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Cold tier: old events moved from the event table to compressed files on local disk.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Root of the archive (one sub-directory per UTC day, then per factory). Required when
+     * enabled: the files are the only copy of archived events, so no temp-dir default.
+     */
+    private Path directory;
+
+    /**
+     * Events whose event time is older than this are archived; ingest rejects them from then on.
+     */
+    private Duration minAge = Duration.ofDays(90);
+
+    /**
+     * Rows moved per transaction, which bounds how long row locks are held.
+     */
+    private int chunkRows = 10_000;
+
+    /**
+     * Delay between archive passes; 0 disables the schedule.
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Heap kept for inflated archive columns between stats queries (20 bytes per archived
+     * event); least recently read files are dropped first. 0 inflates on every query.
+     */
+    private DataSize cacheSize = DataSize.ofMegabytes(64);
+}
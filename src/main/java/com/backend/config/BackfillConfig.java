@@ -0,0 +1,42 @@
+package com.backend.config;
+
+import com.backend.backfill.EventBackfill;
+import com.backend.service.EventService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@EnableConfigurationProperties(BackfillProperties.class)
+public class BackfillConfig {
+
+    // One mapping per chunk, and a mapping is limited to 2 GB
+    private static final DataSize MAX_CHUNK_SIZE = DataSize.ofGigabytes(1);
+
+    /**
+     * Loads the configured files once the context is up. A failure fails the startup, so
+     * the process exits non-zero; rejected events do not.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.backfill", name = "enabled", havingValue = "true")
+    public ApplicationRunner backfillRunner(BackfillProperties props, EventService eventService, ObjectMapper objectMapper) {
+        if (props.getFiles().isEmpty()) {
+            throw new IllegalStateException("app.backfill.files must list at least one file");
+        }
+        if (props.getParallelism() <= 0 || props.getBatchSize() <= 0) {
+            throw new IllegalStateException("app.backfill.parallelism and app.backfill.batch-size must be > 0");
+        }
+        long chunkBytes = props.getChunkSize().toBytes();
+        if (chunkBytes <= 0 || chunkBytes > MAX_CHUNK_SIZE.toBytes()) {
+            throw new IllegalStateException("app.backfill.chunk-size must be > 0 and <= " + MAX_CHUNK_SIZE);
+        }
+
+        EventBackfill backfill = new EventBackfill(eventService, objectMapper, props.getParallelism(),
+                props.getBatchSize(), chunkBytes, props.getCheckpointDirectory(), props.getReportInterval());
+        return args -> backfill.run(props.getFiles());
+    }
+}
@@ -0,0 +1,53 @@
+package com.backend.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Command-line bulk load of historical event files (the {@code backfill} profile).
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.backfill")
+public class BackfillProperties {
+
+    /**
+     * Runs the load at startup instead of serving requests.
+     */
+    private boolean enabled = false;
+
+    /**
+     * NDJSON ({@code .ndjson}, {@code .jsonl}, {@code .json}) or CSV ({@code .csv}) files, in the layout of /events/export.
+     */
+    private List<Path> files = new ArrayList<>();
+
+    /**
+     * Chunks parsed and written at the same time; each holds one connection while writing.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Events per ingest transaction, and per checkpoint.
+     */
+    private int batchSize = 5000;
+
+    /**
+     * Size of the file ranges mapped and processed as one unit. Fixed for a file by its first run.
+     */
+    private DataSize chunkSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Where the per-file checkpoints live; delete a file's checkpoint to load it again from the start.
+     */
+    private Path checkpointDirectory = Path.of(System.getProperty("java.io.tmpdir"), "factory-events-backfill");
+
+    /**
+     * Interval of the progress log lines.
+     */
+    private Duration reportInterval = Duration.ofSeconds(10);
+}
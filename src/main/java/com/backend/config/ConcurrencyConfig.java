@@ -0,0 +1,75 @@
+package com.backend.config;
+
+import com.backend.controller.ConcurrencyLimitFilter;
+import com.backend.jfr.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Request concurrency: the limit in front of the database-bound endpoints, and pinning
+ * diagnostics when requests run on virtual threads (spring.threads.virtual.enabled).
+ *
+ * Both beans always exist and read their switch when created, as sharding does, so an
+ * AOT-processed build (which fixes @Conditional outcomes at build time) still honours the
+ * runtime settings.
+ */
+@Configuration
+@EnableConfigurationProperties({ConcurrencyLimitProperties.class, VirtualThreadProperties.class})
+public class ConcurrencyConfig {
+
+    /**
+     * Only /events and /stats: actuator requests (health checks, scrapes) are never queued.
+     * Disabled, the registration stays off and the filter never sees a request.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            ConcurrencyLimitProperties props,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        if (props.getMaxConcurrent() < 0 || props.getMaxWait().isNegative()) {
+            throw new IllegalStateException("app.concurrency-limit.max-concurrent and max-wait must be >= 0");
+        }
+        int limit = props.getMaxConcurrent() > 0 ? props.getMaxConcurrent() : 2 * poolSize;
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, props.getMaxWait());
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/events/*", "/stats/*");
+        if (!props.isEnabled()) {
+            registration.setEnabled(false);
+            return registration;
+        }
+
+        meterRegistry.ifAvailable(r -> {
+            Gauge.builder("http.concurrency.limit", filter, ConcurrencyLimitFilter::limit)
+                    .description("Requests allowed to run at once")
+                    .register(r);
+            Gauge.builder("http.concurrency.active", filter, ConcurrencyLimitFilter::active)
+                    .description("Requests running under the concurrency limit")
+                    .register(r);
+            Gauge.builder("http.concurrency.waiting", filter, ConcurrencyLimitFilter::waiting)
+                    .description("Requests waiting for a slot")
+                    .register(r);
+            FunctionCounter.builder("http.concurrency.rejected", filter, ConcurrencyLimitFilter::rejected)
+                    .description("Requests answered 503 after waiting max-wait")
+                    .register(r);
+        });
+        return registration;
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(VirtualThreadProperties props, Environment environment,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return VirtualThreadPinningMonitor.disabled();
+        }
+        return new VirtualThreadPinningMonitor(props.getPinnedThreshold(), meterRegistry.getIfAvailable());
+    }
+}
@@ -0,0 +1,29 @@
+package com.backend.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cap on concurrent /events and /stats requests, sized from the connection pool so that
+ * request threads (unbounded when they are virtual) wait in the application, not in
+ * PostgreSQL or in the pool's connection timeout.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Requests running at once; 0 = twice the primary pool size, since a request does not
+     * hold its connection while its body is read and bound.
+     */
+    private int maxConcurrent = 0;
+
+    /**
+     * How long a request may wait for a slot before it gets a 503.
+     */
+    private Duration maxWait = Duration.ofSeconds(1);
+}
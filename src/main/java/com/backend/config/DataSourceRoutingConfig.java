@@ -0,0 +1,75 @@
+package com.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Primary + read replicas, routed by the transaction's read-only flag.
+ *
+ * The exposed DataSource is a LazyConnectionDataSourceProxy: the physical connection is
+ * only fetched at the first statement, after the transaction manager has called
+ * setReadOnly(true) for @Transactional(readOnly = true). Read-only connections come from
+ * the replicas, everything else (ingest, schema init) from the primary.
+ *
+ * Disabled by default; without it Spring Boot's single DataSource is used as before.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.read", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(ReadReplicaProperties props, HikariDataSource primaryDataSource,
+                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        if (props.getReplicas().isEmpty()) {
+            throw new IllegalStateException("app.datasource.read.enabled=true but no app.datasource.read.replicas configured");
+        }
+
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < props.getReplicas().size(); i++) {
+            ReadReplicaProperties.Replica replica = props.getReplicas().get(i);
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName("replica-" + i);
+            ds.setJdbcUrl(replica.getUrl());
+            ds.setUsername(replica.getUsername());
+            ds.setPassword(replica.getPassword());
+            ds.setMaximumPoolSize(props.getMaximumPoolSize());
+            ds.setConnectionTimeout(props.getConnectionTimeout().toMillis());
+            ds.setReadOnly(true);
+            // Replica pools are not beans, so Boot's pool metrics binder never sees them
+            meterRegistry.ifAvailable(r -> ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(r)));
+            pools.add(ds);
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, pools, props.getMaxLag(), props.getLagCheckInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(replicaDataSource);
+        return proxy;
+    }
+}
@@ -0,0 +1,81 @@
+package com.backend.config;
+
+import com.backend.dao.EventShards;
+import com.backend.hotstore.HotEventStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(HotStoreProperties.class)
+public class HotStoreConfig {
+
+    private static final Duration MAX_RETENTION = Duration.ofDays(7);
+
+    @Bean
+    public HotEventStore hotEventStore(HotStoreProperties props, Clock clock, ObjectProvider<MeterRegistry> meterRegistry) {
+        if (!props.isEnabled()) {
+            return HotEventStore.disabled();
+        }
+        if (props.getRetention().isNegative() || props.getRetention().isZero()
+                || props.getRetention().compareTo(MAX_RETENTION) > 0) {
+            throw new IllegalStateException("app.hot-store.retention must be > 0 and <= " + MAX_RETENTION);
+        }
+        if (props.getSegmentRows() <= 0) {
+            throw new IllegalStateException("app.hot-store.segment-rows must be > 0");
+        }
+
+        HotEventStore store = new HotEventStore(props.getRetention(), props.getMaxMemory().toBytes(),
+                props.getSegmentRows(), clock);
+        meterRegistry.ifAvailable(r -> {
+            Gauge.builder("hot.store.rows", store, HotEventStore::rows)
+                    .description("Rows held by the hot store, tombstones included")
+                    .register(r);
+            Gauge.builder("hot.store.memory", store, HotEventStore::offHeapBytes)
+                    .description("Off-heap bytes allocated to hot store segments")
+                    .baseUnit("bytes")
+                    .register(r);
+        });
+        return store;
+    }
+
+    /**
+     * Fills the store once the application is up, without delaying startup. Queries on
+     * the store are rejected until this finishes; if it fails, the store falls back to
+     * covering event times from startup on.
+     */
+    @EventListener
+    public void preload(ApplicationReadyEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        HotEventStore store = context.getBean(HotEventStore.class);
+        if (!store.isEnabled()) return;
+
+        Instant startup = context.getBean(Clock.class).instant();
+        if (!context.getBean(HotStoreProperties.class).isPreload()) {
+            store.markReady(HotEventStore.coverageWithoutPreload(startup));
+            return;
+        }
+        EventShards shards = context.getBean(EventShards.class);
+        Thread t = new Thread(() -> {
+            try {
+                store.preload(shards);
+            } catch (RuntimeException e) {
+                log.warn("Hot store preload failed, serving event times from startup on", e);
+                store.markReady(HotEventStore.coverageWithoutPreload(startup));
+            }
+        }, "hot-store-preload");
+        t.setDaemon(true);
+        t.start();
+    }
+}
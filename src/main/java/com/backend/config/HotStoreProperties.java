@@ -0,0 +1,39 @@
+package com.backend.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * In-process columnar copy of the recent events, queried with source=HOT on /stats.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.hot-store")
+public class HotStoreProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Event-time window kept in memory, counted back from now. At most 7 days, so that
+     * times fit the 32-bit deltas of a segment.
+     */
+    private Duration retention = Duration.ofHours(6);
+
+    /**
+     * Off-heap budget of the columns; the oldest segment is evicted beyond it.
+     */
+    private DataSize maxMemory = DataSize.ofMegabytes(256);
+
+    /**
+     * Rows per segment, the unit of allocation and eviction.
+     */
+    private int segmentRows = 65_536;
+
+    /**
+     * Load the retention window from the database at startup. Without it the store only
+     * answers windows starting after startup.
+     */
+    private boolean preload = true;
+}
@@ -0,0 +1,36 @@
+package com.backend.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Bounds of the on-demand Flight Recorder recordings started through /actuator/jfr.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.jfr")
+public class JfrProperties {
+
+    /**
+     * Where finished recordings are written; only the latest one is kept.
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "factory-events-jfr");
+
+    /**
+     * Duration of a recording started without one.
+     */
+    private Duration defaultDuration = Duration.ofMinutes(1);
+
+    /**
+     * Longest recording that may be requested; the recording stops by itself after its duration.
+     */
+    private Duration maxDuration = Duration.ofMinutes(10);
+
+    /**
+     * Disk budget of a running recording; older chunks are dropped beyond it.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+}
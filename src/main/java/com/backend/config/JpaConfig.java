@@ -0,0 +1,18 @@
+package com.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * The Event entity and EventRepository. No request path uses them (reads and writes are plain
+ * JDBC); they stay for tooling and tests. The no-jpa profile (application-no-jpa.yaml) removes
+ * this configuration together with the Hibernate and Spring Data JPA auto-configuration.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.jpa", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EntityScan(basePackages = "com.backend.entity")
+@EnableJpaRepositories(basePackages = "com.backend.repository")
+public class JpaConfig {
+}
@@ -0,0 +1,42 @@
+package com.backend.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Read replicas used by read-only transactions (stats, query, export).
+ * The primary keeps using spring.datasource.* / spring.datasource.hikari.*.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.datasource.read")
+public class ReadReplicaProperties {
+
+    private boolean enabled;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Replicas lagging more than this fall back to the primary. Null = no lag bound.
+     */
+    private Duration maxLag;
+
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * Pool size per replica, independent of the primary pool.
+     */
+    private int maximumPoolSize = 10;
+
+    private Duration connectionTimeout = Duration.ofSeconds(30);
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,131 @@
+package com.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Hands out connections from healthy replicas (round-robin), or from the primary
+ * when every replica is down or lagging more than {@code maxLag}.
+ *
+ * Health is refreshed in the background so the request path never waits on a probe.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+
+    /**
+     * Replay lag in ms. -1 when no WAL receiver is streaming: having replayed everything
+     * received then says nothing, the replica may be falling behind without bound. 0 when
+     * the replica has replayed everything it received, otherwise the age of the last
+     * replayed transaction.
+     *
+     * status is only visible to superusers and pg_read_all_stats; for other users it is
+     * NULL and a running receiver process counts as streaming.
+     */
+    private static final String LAG_SQL = """
+        SELECT CASE
+          WHEN NOT pg_is_in_recovery() THEN 0
+          WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE COALESCE(status, 'streaming') = 'streaming') THEN -1
+          WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+          ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+        END
+        """;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration lagCheckInterval;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker;
+
+    private static final class Replica {
+        final HikariDataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    Duration maxLag, Duration lagCheckInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLag = maxLag;
+        this.lagCheckInterval = lagCheckInterval;
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-lag-check");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long intervalMs = lagCheckInterval.toMillis();
+        lagChecker.scheduleWithFixedDelay(this::checkReplicas, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    /**
+     * The next healthy replica in turn, or the primary when there is none.
+     */
+    private DataSource target() {
+        int n = replicas.size();
+        if (n == 0) return primary;
+        int start = Math.floorMod(next.getAndIncrement(), n);
+        for (int i = 0; i < n; i++) {
+            Replica replica = replicas.get((start + i) % n);
+            if (replica.healthy) return replica.dataSource;
+        }
+        return primary;
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection con = replica.dataSource.getConnection();
+                 Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery(LAG_SQL)) {
+                rs.next();
+                long lagMs = (long) rs.getDouble(1);
+                healthy = lagMs >= 0 && (maxLag == null || lagMs <= maxLag.toMillis());
+            } catch (SQLException | RuntimeException e) {
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy) {
+                log.warn("Replica {} is now {}", replica.dataSource.getPoolName(), healthy ? "in use" : "bypassed");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        lagChecker.shutdownNow();
+        replicas.forEach(r -> r.dataSource.close());
+    }
+}
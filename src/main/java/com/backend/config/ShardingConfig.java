@@ -0,0 +1,89 @@
+package com.backend.config;
+
+import com.backend.dao.EventShards;
+import com.backend.dao.ShardRing;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties({ShardingProperties.class, SqlInitializationProperties.class})
+public class ShardingConfig {
+
+    @Bean
+    public EventShards eventShards(ShardingProperties props, DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectProvider<MeterRegistry> meterRegistry, Environment environment,
+                                   SqlInitializationProperties sqlInit) {
+        TransactionTemplate mainReadTx = readOnly(transactionManager);
+        if (!props.isEnabled()) {
+            return EventShards.single(dataSource, jdbcTemplate, mainReadTx);
+        }
+        if (props.getShards().isEmpty()) {
+            throw new IllegalStateException("app.sharding.enabled=true but no app.sharding.shards configured");
+        }
+
+        List<EventShards.Shard> shards = new ArrayList<>();
+        shards.add(new EventShards.Shard(0, dataSource, jdbcTemplate, mainReadTx));
+        for (ShardingProperties.Node node : props.getShards()) {
+            int index = shards.size();
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName("shard-" + index);
+            ds.setJdbcUrl(node.getUrl());
+            ds.setUsername(node.getUsername());
+            ds.setPassword(node.getPassword());
+            ds.setMaximumPoolSize(props.getMaximumPoolSize());
+            // hikaricp.* meters tagged pool=shard-N (Boot only binds DataSource beans)
+            meterRegistry.ifAvailable(r -> ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(r)));
+            shards.add(new EventShards.Shard(index, ds, new JdbcTemplate(ds), readOnly(new DataSourceTransactionManager(ds))));
+        }
+
+        // Same schema on every node, plus the event_id directory, under spring.sql.init's rules
+        // (mode, separator, encoding) so "embedded" leaves a real server alone as it does for schema.sql
+        DatabaseInitializationSettings settings = SqlDataSourceScriptDatabaseInitializer.getSettings(sqlInit);
+        settings.setSchemaLocations(List.of("classpath:schema.sql", "classpath:schema-sharding.sql"));
+        settings.setDataLocations(List.of());
+        shards.forEach(s -> new SqlDataSourceScriptDatabaseInitializer(s.dataSource(), settings).initializeDatabase());
+
+        // Fan-out tasks only wait on JDBC and shard 0 runs on the caller, so the tasks can never
+        // use more threads than shards 1..N have connections
+        ExecutorService executor;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-io-", 1).factory());
+        } else {
+            AtomicInteger threads = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(props.getMaximumPoolSize() * (shards.size() - 1), r -> {
+                Thread t = new Thread(r, "shard-io-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        return new EventShards(shards, new ShardRing(shards.size(), props.getVirtualNodes()), executor);
+    }
+
+    private static TransactionTemplate readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx;
+    }
+}
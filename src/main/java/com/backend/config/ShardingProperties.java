@@ -0,0 +1,39 @@
+package com.backend.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Extra PostgreSQL nodes for the event table. Shard 0 is always spring.datasource.
+ *
+ * The shard list and virtualNodes define where every event lives: only ever append
+ * shards, and move the affected rows when you do.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    /**
+     * Shards 1..N (shard 0 is the application datasource).
+     */
+    private List<Node> shards = new ArrayList<>();
+
+    private int virtualNodes = 160;
+
+    /**
+     * Pool size per extra shard.
+     */
+    private int maximumPoolSize = 10;
+
+    @Getter @Setter
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,20 @@
+package com.backend.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Diagnostics of the virtual-thread mode (spring.threads.virtual.enabled).
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.virtual-threads")
+public class VirtualThreadProperties {
+
+    /**
+     * Shortest pinning (a virtual thread blocking while it cannot unmount, e.g. inside a
+     * synchronized block) that is counted and logged.
+     */
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+}
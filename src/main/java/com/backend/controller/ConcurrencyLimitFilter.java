@@ -0,0 +1,85 @@
+package com.backend.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Lets at most {@code limit} requests through at once; later ones wait in FIFO order for
+ * up to {@code maxWait}, then get 503 with Retry-After. Waiting here costs a parked
+ * (virtual) thread; past the limit the requests would only queue for a pooled connection
+ * anyway, and hit the pool's connection timeout as 500s.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY =
+            "{\"error\":\"TOO_MANY_CONCURRENT_REQUESTS\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final int limit;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimitFilter(int limit, Duration maxWait) {
+        this.limit = limit;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(limit, true);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        waiting.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(REJECTED_BODY);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int active() {
+        return limit - permits.availablePermits();
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+}
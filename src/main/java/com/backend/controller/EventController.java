@@ -1,11 +1,23 @@
 package com.backend.controller;
 
+import com.backend.dao.EventFilter;
 import com.backend.dto.BatchIngestResponse;
 import com.backend.dto.EventIngestRequest;
+import com.backend.dto.EventPageResponse;
+import com.backend.dto.ExportFormat;
+import com.backend.service.EventExportService;
+import com.backend.service.EventQueryService;
 import com.backend.service.EventService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -14,10 +26,93 @@ import org.springframework.web.bind.annotation.*;
 public class EventController {
 
     private final EventService eventService;
+    private final EventExportService eventExportService;
+    private final EventQueryService eventQueryService;
 
     @PostMapping("/batch")
-    public BatchIngestResponse ingestBatch(@RequestBody List<@Valid EventIngestRequest> events) {
+    public BatchIngestResponse ingestBatch(@RequestBody @TimedBinding List<@Valid EventIngestRequest> events) {
         return eventService.ingestBatch(events);
     }
 
+    /**
+     * Keyset-paginated raw events ordered by (eventTime, id).
+     * Pass the returned nextCursor to fetch the following page.
+     */
+    @GetMapping
+    public EventPageResponse findEvents(
+            @RequestParam(required = false) String machineId,
+            @RequestParam(required = false) String factoryId,
+            @RequestParam(required = false) String lineId,
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        EventFilter filter = new EventFilter(machineId, factoryId, lineId, from, to);
+        return eventQueryService.findEvents(filter, cursor, limit);
+    }
+
+    /**
+     * Streams raw events for one machine, line or factory as NDJSON (default) or CSV.
+     * Gzip is applied when the client's Accept-Encoding allows it (gzip or *, with q > 0).
+     */
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(required = false) String machineId,
+            @RequestParam(required = false) String factoryId,
+            @RequestParam(required = false) String lineId,
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        // Validate before anything is written so bad input still gets a clean 400
+        EventFilter filter = new EventFilter(machineId, factoryId, lineId, from, to);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        if (gzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream gz = new GZIPOutputStream(out, 64 * 1024)) {
+                eventExportService.export(filter, format, gz);
+            }
+        } else {
+            eventExportService.export(filter, format, out);
+        }
+    }
+
+    /**
+     * RFC 9110 content negotiation for the one coding we offer: an explicit gzip entry
+     * decides, otherwise a * entry does; q=0 means "not acceptable".
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzipQ = null;
+        Double anyQ = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("*")) continue;
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip")) gzipQ = q;
+            else anyQ = q;
+        }
+        if (gzipQ != null) return gzipQ > 0;
+        return anyQ != null && anyQ > 0;
+    }
+
 }
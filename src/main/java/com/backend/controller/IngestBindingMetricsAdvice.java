@@ -0,0 +1,52 @@
+package com.backend.controller;
+
+import com.backend.service.IngestMetrics;
+import java.lang.reflect.Type;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+/**
+ * Times JSON binding of the POST /events/batch body (the "bind" stage of ingest.stage),
+ * which happens in the message converter before EventService is called. Applies to
+ * request bodies marked {@link TimedBinding}.
+ */
+@ControllerAdvice(assignableTypes = EventController.class)
+@RequiredArgsConstructor
+public class IngestBindingMetricsAdvice extends RequestBodyAdviceAdapter {
+
+    // A request attribute rather than a ThreadLocal, which costs a map per virtual thread
+    private static final String BIND_START = IngestBindingMetricsAdvice.class.getName() + ".bindStart";
+
+    private final IngestMetrics ingestMetrics;
+
+    @Override
+    public boolean supports(MethodParameter parameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return parameter.hasParameterAnnotation(TimedBinding.class);
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(BIND_START, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        Object start = RequestContextHolder.currentRequestAttributes()
+                .getAttribute(BIND_START, RequestAttributes.SCOPE_REQUEST);
+        if (start instanceof Long nanos) {
+            ingestMetrics.stage(IngestMetrics.Stage.BIND, System.nanoTime() - nanos);
+        }
+        return body;
+    }
+}
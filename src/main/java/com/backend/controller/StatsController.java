@@ -1,9 +1,14 @@
 package com.backend.controller;
 
+import com.backend.dao.AggregationQuery;
+import com.backend.dto.AggregationResponse;
 import com.backend.dto.MachineStatsResponse;
+import com.backend.dto.StatsSource;
 import com.backend.dto.TopDefectLineDto;
+import com.backend.service.AggregationService;
 import com.backend.service.StatsService;
 import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -14,14 +19,18 @@ import org.springframework.web.bind.annotation.*;
 public class StatsController {
 
     private final StatsService statsService;
+    private final AggregationService aggregationService;
 
     @GetMapping
     public MachineStatsResponse machineStats(
             @RequestParam String machineId,
             @RequestParam Instant start,
-            @RequestParam Instant end
+            @RequestParam Instant end,
+            @RequestParam(defaultValue = "DB") StatsSource source
     ) {
-        return statsService.machineStats(machineId, start, end);
+        return source == StatsSource.HOT
+                ? statsService.hotMachineStats(machineId, start, end)
+                : statsService.machineStats(machineId, start, end);
     }
 
     @GetMapping("/top-defect-lines")
@@ -29,8 +38,35 @@ public class StatsController {
             @RequestParam String factoryId,
             @RequestParam Instant from,
             @RequestParam Instant to,
-            @RequestParam(defaultValue = "10") int limit
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "DB") StatsSource source
     ) {
-        return statsService.topDefectLines(factoryId, from, to, limit);
+        return source == StatsSource.HOT
+                ? statsService.hotTopDefectLines(factoryId, from, to, limit)
+                : statsService.topDefectLines(factoryId, from, to, limit);
+    }
+
+    /**
+     * Groups events by any subset of factory, line, machine and time bucket.
+     * Example: ?groupBy=line,time&bucket=hour&metrics=count,avg_defects&factoryId=F-01&from=..&to=..
+     */
+    @GetMapping("/aggregate")
+    public AggregationResponse aggregate(
+            @RequestParam(defaultValue = "") List<String> groupBy,
+            @RequestParam(defaultValue = "hour") String bucket,
+            @RequestParam(defaultValue = "count") List<String> metrics,
+            @RequestParam(required = false) String factoryId,
+            @RequestParam(required = false) String lineId,
+            @RequestParam(required = false) String machineId,
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        AggregationQuery query = new AggregationQuery(
+                groupBy.stream().filter(s -> !s.isBlank()).map(AggregationQuery.Dimension::parse).toList(),
+                AggregationQuery.Bucket.parse(bucket),
+                new LinkedHashSet<>(metrics.stream().map(AggregationQuery.Metric::parse).toList()),
+                factoryId, lineId, machineId, from, to);
+        return aggregationService.aggregate(query, limit);
     }
 }
@@ -0,0 +1,17 @@
+package com.backend.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * On a {@code @RequestBody} parameter: its JSON binding is timed as the "bind" stage of
+ * ingest.stage by {@link IngestBindingMetricsAdvice}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface TimedBinding {
+}
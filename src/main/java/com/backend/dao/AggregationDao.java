@@ -0,0 +1,138 @@
+package com.backend.dao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.LongSupplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs {@link AggregationQuery} on every shard that can hold matching rows and merges
+ * the per-shard partial groups.
+ *
+ * Each shard returns its first {@code limit + 1} groups in key order. Any group in the
+ * global first {@code limit} ranks no lower on a shard, so those groups are complete.
+ */
+@Component
+@RequiredArgsConstructor
+public class AggregationDao {
+
+    private static final String RELTUPLES_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'event'::regclass";
+
+    // Same order as ORDER BY: String.compareTo matches COLLATE "C", Instants are chronological
+    private static final Comparator<List<Object>> KEY_ORDER = AggregationDao::compareKeys;
+
+    private final EventShards eventShards;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * One group: key values in groupBy order (String, or Instant for a time bucket)
+     * and the additive partials selected by {@link AggregationQuery#sql(Integer)}.
+     */
+    public record Group(List<Object> key, long eventCount, long knownDefectEvents, long totalDefects, long totalDurationMs) {
+
+        Group plus(Group other) {
+            return new Group(key, eventCount + other.eventCount, knownDefectEvents + other.knownDefectEvents,
+                    totalDefects + other.totalDefects, totalDurationMs + other.totalDurationMs);
+        }
+    }
+
+    /**
+     * Planner estimate summed over the target shards.
+     * scannedRows: rows read from event (table size for a sequential scan).
+     * groups: rows produced by the aggregation.
+     */
+    public record Estimate(long scannedRows, long groups) {}
+
+    public Estimate estimate(AggregationQuery query) {
+        String sql = "EXPLAIN (FORMAT JSON) " + query.sql(null);
+        List<Estimate> perShard = eventShards.scatter(targets(query), shard -> {
+            String json = shard.jdbc().query(con -> {
+                var ps = con.prepareStatement(sql);
+                query.bind(ps);
+                return ps;
+            }, rs -> rs.next() ? rs.getString(1) : null);
+            JsonNode plan = readPlan(json);
+            long scanned = scannedRows(plan, () -> shard.jdbc().queryForObject(RELTUPLES_SQL, Long.class));
+            return new Estimate(scanned, plan.path("Plan Rows").asLong());
+        });
+        return new Estimate(
+                perShard.stream().mapToLong(Estimate::scannedRows).sum(),
+                perShard.stream().mapToLong(Estimate::groups).sum());
+    }
+
+    /**
+     * Groups in key order; at most {@code limit + 1} so the caller can tell the result was cut.
+     */
+    public List<Group> aggregate(AggregationQuery query, int limit) {
+        String sql = query.sql(limit + 1);
+        int keys = query.groupBy().size();
+        List<List<Group>> partials = eventShards.scatter(targets(query), shard -> shard.jdbc().query(con -> {
+            var ps = con.prepareStatement(sql);
+            query.bind(ps);
+            return ps;
+        }, (rs, n) -> mapGroup(rs, query, keys)));
+
+        if (partials.size() == 1) return partials.get(0);
+
+        Map<List<Object>, Group> merged = new TreeMap<>(KEY_ORDER);
+        for (List<Group> partial : partials) {
+            for (Group g : partial) merged.merge(g.key(), g, Group::plus);
+        }
+        return merged.values().stream().limit(limit + 1L).toList();
+    }
+
+    private List<Integer> targets(AggregationQuery query) {
+        return query.machineScope()
+                ? List.of(eventShards.shardForMachine(query.machineId()))
+                : eventShards.allIndexes();
+    }
+
+    private static Group mapGroup(ResultSet rs, AggregationQuery query, int keys) throws SQLException {
+        List<Object> key = new ArrayList<>(keys);
+        for (int i = 0; i < keys; i++) {
+            key.add(query.groupBy().get(i) == AggregationQuery.Dimension.TIME
+                    ? rs.getTimestamp(i + 1).toInstant()
+                    : rs.getString(i + 1));
+        }
+        return new Group(key, rs.getLong(keys + 1), rs.getLong(keys + 2), rs.getLong(keys + 3), rs.getLong(keys + 4));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(List<Object> a, List<Object> b) {
+        for (int i = 0; i < a.size(); i++) {
+            int c = ((Comparable) a.get(i)).compareTo(b.get(i));
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    private JsonNode readPlan(String json) {
+        try {
+            return objectMapper.readTree(json).get(0).get("Plan");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable EXPLAIN output", e);
+        }
+    }
+
+    /**
+     * Sum over every scan of event: a sequential scan reads the whole table, index and
+     * bitmap scans read roughly the rows they return.
+     */
+    private static long scannedRows(JsonNode node, LongSupplier tableRows) {
+        long rows = 0;
+        if ("event".equals(node.path("Relation Name").asText())) {
+            rows += "Seq Scan".equals(node.path("Node Type").asText())
+                    ? Math.max(tableRows.getAsLong(), node.path("Plan Rows").asLong())
+                    : node.path("Plan Rows").asLong();
+        }
+        for (JsonNode child : node.path("Plans")) {
+            rows += scannedRows(child, tableRows);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,154 @@
+package com.backend.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * One dimensional aggregation over the event table.
+ *
+ * Only whitelisted names reach the SQL: dimensions, metrics and buckets map to fixed
+ * expressions, every filter value is a bind parameter.
+ * Filters are all optional except the time window (from inclusive, to exclusive).
+ */
+public record AggregationQuery(List<Dimension> groupBy, Bucket bucket, Set<Metric> metrics,
+                               String factoryId, String lineId, String machineId,
+                               Instant from, Instant to) {
+
+    public enum Dimension {
+        FACTORY("factory_id"),
+        LINE("line_id"),
+        MACHINE("machine_id"),
+        TIME(null);
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+
+        public static Dimension parse(String name) {
+            return AggregationQuery.parse(Dimension.class, name, "groupBy");
+        }
+    }
+
+    public enum Metric {
+        COUNT, SUM_DEFECTS, AVG_DEFECTS, SUM_DURATION, AVG_DURATION;
+
+        public static Metric parse(String name) {
+            return AggregationQuery.parse(Metric.class, name, "metric");
+        }
+    }
+
+    public enum Bucket {
+        MINUTE, HOUR, DAY;
+
+        public static Bucket parse(String name) {
+            return AggregationQuery.parse(Bucket.class, name, "bucket");
+        }
+    }
+
+    public AggregationQuery {
+        if (groupBy == null || metrics == null || metrics.isEmpty()) {
+            throw new IllegalArgumentException("Invalid groupBy/metrics");
+        }
+        if (Set.copyOf(groupBy).size() != groupBy.size()) {
+            throw new IllegalArgumentException("Duplicate groupBy dimension");
+        }
+        if (groupBy.contains(Dimension.TIME) && bucket == null) {
+            throw new IllegalArgumentException("Invalid bucket");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Invalid from/to");
+        }
+        groupBy = List.copyOf(groupBy);
+        metrics = Set.copyOf(metrics);
+    }
+
+    /**
+     * Shard routing: a machine filter pins the query to one shard.
+     */
+    public boolean machineScope() {
+        return hasText(machineId);
+    }
+
+    /**
+     * Group key of dimension {@code d}; time buckets are truncated in UTC, as everything else in the API.
+     */
+    static String keyExpression(Dimension d, Bucket bucket) {
+        if (d == Dimension.TIME) {
+            return "date_trunc('" + bucket.name().toLowerCase(Locale.ROOT) + "', event_time, 'UTC')";
+        }
+        return d.column;
+    }
+
+    /**
+     * Compiles to one GROUP BY statement: the key columns, then the four partial sums
+     * (event count, events with a known defect count, defects, duration).
+     *
+     * Partials are additive, so shard results merge by summing. Partials no metric needs
+     * are selected as constant 0: e.g. a COUNT grouped by line with a factory filter only
+     * reads (factory_id, line_id, event_time) and can be answered by an index-only scan
+     * of idx_event_factory_line_time.
+     *
+     * Strings sort with COLLATE "C" so the database order matches String.compareTo used
+     * when merging shards. {@code limit} null means unlimited (used for EXPLAIN).
+     */
+    String sql(Integer limit) {
+        boolean defects = metrics.contains(Metric.SUM_DEFECTS) || metrics.contains(Metric.AVG_DEFECTS);
+        boolean duration = metrics.contains(Metric.SUM_DURATION) || metrics.contains(Metric.AVG_DURATION);
+
+        String keys = groupBy.stream().map(d -> keyExpression(d, bucket) + ", ").collect(Collectors.joining());
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(keys)
+                .append("COUNT(*), ")
+                .append(defects ? "COUNT(*) FILTER (WHERE defect_count <> -1), " : "0, ")
+                .append(defects ? "COALESCE(SUM(defect_count) FILTER (WHERE defect_count <> -1), 0), " : "0, ")
+                .append(duration ? "COALESCE(SUM(duration_ms), 0)" : "0")
+                .append(" FROM event WHERE event_time >= ? AND event_time < ?");
+        if (hasText(factoryId)) sql.append(" AND factory_id = ?");
+        if (hasText(lineId)) sql.append(" AND line_id = ?");
+        if (machineScope()) sql.append(" AND machine_id = ?");
+
+        if (!groupBy.isEmpty()) {
+            String positions = IntStream.rangeClosed(1, groupBy.size())
+                    .mapToObj(String::valueOf).collect(Collectors.joining(", "));
+            String order = groupBy.stream()
+                    .map(d -> d == Dimension.TIME ? keyExpression(d, bucket) : d.column + " COLLATE \"C\"")
+                    .collect(Collectors.joining(", "));
+            sql.append(" GROUP BY ").append(positions).append(" ORDER BY ").append(order);
+            if (limit != null) sql.append(" LIMIT ").append(limit);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Binds the filter parameters of {@link #sql(Integer)}.
+     */
+    void bind(PreparedStatement ps) throws SQLException {
+        int i = 1;
+        ps.setTimestamp(i++, Timestamp.from(from));
+        ps.setTimestamp(i++, Timestamp.from(to));
+        if (hasText(factoryId)) ps.setString(i++, factoryId);
+        if (hasText(lineId)) ps.setString(i++, lineId);
+        if (machineScope()) ps.setString(i, machineId);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name, String label) {
+        try {
+            return Enum.valueOf(type, name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unknown " + label + ": " + name);
+        }
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.isBlank();
+    }
+}
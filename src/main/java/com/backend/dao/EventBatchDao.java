@@ -1,6 +1,8 @@
 package com.backend.dao;
 
+import com.backend.jfr.JdbcBatchEvent;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
@@ -13,7 +15,37 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class EventBatchDao {
 
+    static final String INSERT_SQL = """
+        INSERT INTO event (
+          event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (event_id) DO NOTHING
+        """;
+
+    static final String CONDITIONAL_UPDATE_SQL = """
+        UPDATE event SET
+          factory_id = ?,
+          line_id = ?,
+          machine_id = ?,
+          event_time = ?,
+          received_time = ?,
+          duration_ms = ?,
+          defect_count = ?
+        WHERE event_id = ?
+          AND received_time < ?
+          AND (
+            factory_id IS DISTINCT FROM ? OR
+            line_id   IS DISTINCT FROM ? OR
+            machine_id IS DISTINCT FROM ? OR
+            event_time IS DISTINCT FROM ? OR
+            duration_ms IS DISTINCT FROM ? OR
+            defect_count IS DISTINCT FROM ?
+          )
+        """;
+
     private final JdbcTemplate jdbcTemplate;
+    private final EventShards eventShards;
+    private final ShardedEventWriter shardedEventWriter;
 
     // Java 21 record = less boilerplate, still works the same for construction
     public record EventRow(
@@ -34,32 +66,26 @@ public class EventBatchDao {
     public int[] batchInsertIgnoreConflicts(List<EventRow> rows) {
         if (rows == null || rows.isEmpty()) return new int[0];
 
-        String sql = """
-            INSERT INTO event (
-              event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-            ON CONFLICT (event_id) DO NOTHING
-            """;
-
-        return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
-                EventRow r = rows.get(i);
-                ps.setString(1, r.eventId());
-                ps.setString(2, r.factoryId());
-                ps.setString(3, r.lineId());
-                ps.setString(4, r.machineId());
-                ps.setTimestamp(5, Timestamp.from(r.eventTime()));
-                ps.setTimestamp(6, Timestamp.from(r.receivedTime()));
-                ps.setLong(7, r.durationMs());
-                ps.setInt(8, r.defectCount());
-            }
-
-            @Override
-            public int getBatchSize() {
-                return rows.size();
-            }
-        });
+        JdbcBatchEvent event = new JdbcBatchEvent();
+        event.begin();
+        int[] counts;
+        if (eventShards.isSharded()) {
+            counts = shardedEventWriter.insertIgnoreConflicts(rows);
+        } else {
+            counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setInsertValues(ps, rows.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            });
+        }
+        event.complete("insert", counts, eventShards.isSharded());
+        return counts;
     }
 
     /**
@@ -73,56 +99,60 @@ public class EventBatchDao {
     public int[] batchConditionalUpdate(List<EventRow> rows) {
         if (rows == null || rows.isEmpty()) return new int[0];
 
-        String sql = """
-            UPDATE event SET
-              factory_id = ?,
-              line_id = ?,
-              machine_id = ?,
-              event_time = ?,
-              received_time = ?,
-              duration_ms = ?,
-              defect_count = ?
-            WHERE event_id = ?
-              AND received_time < ?
-              AND (
-                factory_id IS DISTINCT FROM ? OR
-                line_id   IS DISTINCT FROM ? OR
-                machine_id IS DISTINCT FROM ? OR
-                event_time IS DISTINCT FROM ? OR
-                duration_ms IS DISTINCT FROM ? OR
-                defect_count IS DISTINCT FROM ?
-              )
-            """;
-
-        return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
-                EventRow r = rows.get(i);
-
-                ps.setString(1, r.factoryId());
-                ps.setString(2, r.lineId());
-                ps.setString(3, r.machineId());
-                ps.setTimestamp(4, Timestamp.from(r.eventTime()));
-                ps.setTimestamp(5, Timestamp.from(r.receivedTime()));
-                ps.setLong(6, r.durationMs());
-                ps.setInt(7, r.defectCount());
-
-                ps.setString(8, r.eventId());
-                ps.setTimestamp(9, Timestamp.from(r.receivedTime()));
-
-                // payload compare again
-                ps.setString(10, r.factoryId());
-                ps.setString(11, r.lineId());
-                ps.setString(12, r.machineId());
-                ps.setTimestamp(13, Timestamp.from(r.eventTime()));
-                ps.setLong(14, r.durationMs());
-                ps.setInt(15, r.defectCount());
-            }
-
-            @Override
-            public int getBatchSize() {
-                return rows.size();
-            }
-        });
+        JdbcBatchEvent event = new JdbcBatchEvent();
+        event.begin();
+        int[] counts;
+        if (eventShards.isSharded()) {
+            counts = shardedEventWriter.conditionalUpdate(rows);
+        } else {
+            counts = jdbcTemplate.batchUpdate(CONDITIONAL_UPDATE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setConditionalUpdateValues(ps, rows.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            });
+        }
+        event.complete("conditional-update", counts, eventShards.isSharded());
+        return counts;
+    }
+
+    /**
+     * Binds the 8 columns in table order (INSERT_SQL and the sharded upsert).
+     */
+    static void setInsertValues(PreparedStatement ps, EventRow r) throws SQLException {
+        ps.setString(1, r.eventId());
+        ps.setString(2, r.factoryId());
+        ps.setString(3, r.lineId());
+        ps.setString(4, r.machineId());
+        ps.setTimestamp(5, Timestamp.from(r.eventTime()));
+        ps.setTimestamp(6, Timestamp.from(r.receivedTime()));
+        ps.setLong(7, r.durationMs());
+        ps.setInt(8, r.defectCount());
+    }
+
+    static void setConditionalUpdateValues(PreparedStatement ps, EventRow r) throws SQLException {
+        ps.setString(1, r.factoryId());
+        ps.setString(2, r.lineId());
+        ps.setString(3, r.machineId());
+        ps.setTimestamp(4, Timestamp.from(r.eventTime()));
+        ps.setTimestamp(5, Timestamp.from(r.receivedTime()));
+        ps.setLong(6, r.durationMs());
+        ps.setInt(7, r.defectCount());
+
+        ps.setString(8, r.eventId());
+        ps.setTimestamp(9, Timestamp.from(r.receivedTime()));
+
+        // payload compare again
+        ps.setString(10, r.factoryId());
+        ps.setString(11, r.lineId());
+        ps.setString(12, r.machineId());
+        ps.setTimestamp(13, Timestamp.from(r.eventTime()));
+        ps.setLong(14, r.durationMs());
+        ps.setInt(15, r.defectCount());
     }
 }
@@ -0,0 +1,39 @@
+package com.backend.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position (event_time, shard, id) of the last row on a page.
+ * Handed to clients as an opaque base64url token. Unsharded, shard is always 0.
+ */
+public record EventCursor(Instant eventTime, int shard, long id) {
+
+    public String encode() {
+        String raw = eventTime.getEpochSecond() + ":" + eventTime.getNano() + ":" + shard + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Same position as seen from another shard, so the usual (event_time, id) seek works:
+     * shards before the cursor's resume after its time, shards after it at its time.
+     */
+    public EventCursor forShard(int other) {
+        if (other == shard) return this;
+        return new EventCursor(eventTime, other, other < shard ? Long.MAX_VALUE : Long.MIN_VALUE);
+    }
+
+    public static EventCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4) throw new IllegalArgumentException("Invalid cursor");
+            Instant t = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new EventCursor(t, Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            // Covers bad base64, bad numbers and out-of-range instants
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
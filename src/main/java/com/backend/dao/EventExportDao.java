@@ -0,0 +1,51 @@
+package com.backend.dao;
+
+import java.sql.PreparedStatement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class EventExportDao {
+
+    /**
+     * Rows pulled per round trip. pgjdbc only uses a server-side cursor when
+     * fetchSize > 0 AND autocommit is off, hence the read-only transaction per shard.
+     */
+    static final int FETCH_SIZE = 5_000;
+
+    private final EventShards eventShards;
+
+    /**
+     * Streams matching rows straight from the JDBC cursor into {@code handler}.
+     * No entity or row objects are materialised; the ResultSet never holds more
+     * than {@link #FETCH_SIZE} rows.
+     *
+     * No ORDER BY on purpose: a factory-wide sort would make PostgreSQL spill the
+     * whole window to disk before the first row arrives. Rows come in scan order.
+     *
+     * Sharded: machine scope reads its one shard, line/factory scope reads the shards one after another.
+     *
+     * Column order: event_id, factory_id, line_id, machine_id, event_time,
+     * received_time, duration_ms, defect_count.
+     */
+    public void stream(EventFilter filter, RowCallbackHandler handler) {
+        String sql = """
+            SELECT event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count
+            FROM event
+            WHERE %s
+            """.formatted(filter.whereClause());
+
+        for (int i : eventShards.shardsFor(filter)) {
+            EventShards.Shard shard = eventShards.get(i);
+            // Every shard needs its own open transaction for the server-side cursor
+            shard.readTx().executeWithoutResult(tx -> shard.jdbc().query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(FETCH_SIZE);
+                filter.bind(ps, 1);
+                return ps;
+            }, handler));
+        }
+    }
+}
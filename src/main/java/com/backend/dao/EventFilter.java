@@ -0,0 +1,70 @@
+package com.backend.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Raw-event selection shared by the export and query paths.
+ *
+ * Exactly one scope is allowed:
+ *  - machineId                -> idx_event_machine_time
+ *  - factoryId [+ lineId]     -> idx_event_factory_line_time
+ * Time window: from inclusive, to exclusive (same as /stats).
+ */
+public record EventFilter(String machineId, String factoryId, String lineId, Instant from, Instant to) {
+
+    public EventFilter {
+        boolean machineScope = hasText(machineId);
+        boolean factoryScope = hasText(factoryId);
+        boolean validScope = machineScope
+                ? !factoryScope && !hasText(lineId)
+                : factoryScope;
+
+        if (!validScope || from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Invalid machineId|factoryId[/lineId]/from/to");
+        }
+    }
+
+    public boolean machineScope() {
+        return hasText(machineId);
+    }
+
+    public boolean lineScope() {
+        return hasText(lineId);
+    }
+
+    /**
+     * WHERE clause (without the keyword) matching the leading columns of the scope index.
+     */
+    public String whereClause() {
+        if (machineScope()) {
+            return "machine_id = ? AND event_time >= ? AND event_time < ?";
+        }
+        if (lineScope()) {
+            return "factory_id = ? AND line_id = ? AND event_time >= ? AND event_time < ?";
+        }
+        return "factory_id = ? AND event_time >= ? AND event_time < ?";
+    }
+
+    /**
+     * Binds the parameters of {@link #whereClause()} starting at {@code index}.
+     * Returns the next free parameter index.
+     */
+    public int bind(PreparedStatement ps, int index) throws SQLException {
+        if (machineScope()) {
+            ps.setString(index++, machineId);
+        } else {
+            ps.setString(index++, factoryId);
+            if (lineScope()) ps.setString(index++, lineId);
+        }
+        ps.setTimestamp(index++, Timestamp.from(from));
+        ps.setTimestamp(index++, Timestamp.from(to));
+        return index;
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.isBlank();
+    }
+}
@@ -0,0 +1,132 @@
+package com.backend.dao;
+
+import com.backend.dto.EventDto;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class EventQueryDao {
+
+    private static final String COLUMNS =
+            "id, event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count";
+
+    private final EventShards eventShards;
+
+    public record PageRow(int shard, long id, EventDto event) {}
+
+    private static final Comparator<PageRow> KEYSET_ORDER = Comparator
+            .comparing((PageRow r) -> r.event().getEventTime())
+            .thenComparingInt(PageRow::shard)
+            .thenComparingLong(PageRow::id);
+
+    /**
+     * Keyset (seek) page ordered by (event_time, shard, id), starting strictly after {@code after}.
+     * Cost depends on the page size, never on how deep the cursor is.
+     *
+     * Machine and line scope: one range scan on the scope index.
+     * Factory scope: idx_event_factory_line_time has line_id before event_time, so a plain
+     * ORDER BY would sort the whole window. Instead the distinct lines are found with a
+     * loose index scan and each line contributes at most {@code limit} rows (LATERAL).
+     *
+     * Sharded line/factory scope: every shard returns its own next {@code limit} rows and
+     * the pages are merged; ids are per shard, hence the shard in the sort key.
+     *
+     * A cursor at or past {@code to} (the client narrowed the window between pages) has
+     * nothing left to return: an empty last page, no query.
+     */
+    public List<PageRow> findPage(EventFilter filter, EventCursor after, int limit) {
+        if (after != null && !after.eventTime().isBefore(filter.to())) return List.of();
+        List<Integer> targets = eventShards.shardsFor(filter);
+        List<List<PageRow>> pages = eventShards.scatter(targets, shard -> shard.jdbc().query(
+                pageStatement(filter, after == null ? null : after.forShard(shard.index()), limit, ""),
+                (rs, n) -> new PageRow(shard.index(), rs.getLong(1), EventDto.builder()
+                        .eventId(rs.getString(2))
+                        .factoryId(rs.getString(3))
+                        .lineId(rs.getString(4))
+                        .machineId(rs.getString(5))
+                        .eventTime(rs.getTimestamp(6).toInstant())
+                        .receivedTime(rs.getTimestamp(7).toInstant())
+                        .durationMs(rs.getLong(8))
+                        .defectCount(rs.getInt(9))
+                        .build())));
+
+        if (pages.size() == 1) return pages.get(0);
+        return pages.stream().flatMap(List::stream).sorted(KEYSET_ORDER).limit(limit).toList();
+    }
+
+    /**
+     * Builds the bound page statement; {@code sqlPrefix} lets tests wrap it in EXPLAIN.
+     */
+    static PreparedStatementCreator pageStatement(EventFilter filter, EventCursor after, int limit, String sqlPrefix) {
+        boolean seek = after != null;
+        EventFilter window = seek && after.eventTime().isAfter(filter.from())
+                ? new EventFilter(filter.machineId(), filter.factoryId(), filter.lineId(), after.eventTime(), filter.to())
+                : filter;
+        boolean perLine = !window.machineScope() && !window.lineScope();
+        String sql = sqlPrefix + pageSql(window, seek);
+
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            int i = 1;
+            if (perLine) {
+                ps.setString(i++, window.factoryId());
+                ps.setString(i++, window.factoryId());
+                ps.setString(i++, window.factoryId());
+                ps.setTimestamp(i++, Timestamp.from(window.from()));
+                ps.setTimestamp(i++, Timestamp.from(window.to()));
+            } else {
+                i = window.bind(ps, i);
+            }
+            if (seek) {
+                ps.setTimestamp(i++, Timestamp.from(after.eventTime()));
+                ps.setLong(i++, after.id());
+            }
+            ps.setInt(i++, limit);
+            if (perLine) ps.setInt(i, limit);
+            return ps;
+        };
+    }
+
+    static String pageSql(EventFilter window, boolean seek) {
+        // event_time >= cursor is already the lower bound; this only skips ties up to the cursor id
+        String seekClause = seek ? " AND (event_time > ? OR id > ?)" : "";
+
+        if (window.machineScope() || window.lineScope()) {
+            return """
+                SELECT %s
+                FROM event
+                WHERE %s%s
+                ORDER BY event_time, id
+                LIMIT ?
+                """.formatted(COLUMNS, window.whereClause(), seekClause);
+        }
+
+        return """
+            WITH RECURSIVE lines AS (
+              SELECT MIN(line_id) AS line_id FROM event WHERE factory_id = ?
+              UNION ALL
+              SELECT (SELECT MIN(e.line_id) FROM event e WHERE e.factory_id = ? AND e.line_id > l.line_id)
+              FROM lines l
+              WHERE l.line_id IS NOT NULL
+            )
+            SELECT p.*
+            FROM lines l
+            CROSS JOIN LATERAL (
+              SELECT %s
+              FROM event
+              WHERE factory_id = ? AND line_id = l.line_id
+                AND event_time >= ? AND event_time < ?%s
+              ORDER BY event_time, id
+              LIMIT ?
+            ) p
+            ORDER BY p.event_time, p.id
+            LIMIT ?
+            """.formatted(COLUMNS, seekClause);
+    }
+}
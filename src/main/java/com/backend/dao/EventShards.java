@@ -0,0 +1,130 @@
+package com.backend.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The PostgreSQL nodes holding the event table.
+ *
+ * Unsharded (default): a single shard wrapping the application DataSource.
+ * Sharded: shard 0 is still spring.datasource, the others come from app.sharding.shards.
+ * Event rows live on the shard owning hash(machine_id); the event_directory row of an
+ * event_id lives on the shard owning hash(event_id).
+ */
+public class EventShards implements DisposableBean {
+
+    /**
+     * @param readTx read-only transaction on this shard; for shard 0 it joins the caller's transaction
+     */
+    public record Shard(int index, DataSource dataSource, JdbcTemplate jdbc, TransactionTemplate readTx) {}
+
+    private final List<Shard> shards;
+    private final ShardRing ring;
+    private final ExecutorService executor;
+
+    public EventShards(List<Shard> shards, ShardRing ring, ExecutorService executor) {
+        this.shards = List.copyOf(shards);
+        this.ring = ring;
+        this.executor = executor;
+    }
+
+    public static EventShards single(DataSource dataSource, JdbcTemplate jdbc, TransactionTemplate readTx) {
+        return new EventShards(List.of(new Shard(0, dataSource, jdbc, readTx)), null, null);
+    }
+
+    public boolean isSharded() {
+        return ring != null;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public Shard get(int index) {
+        return shards.get(index);
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    /**
+     * Shard holding the event rows of {@code machineId}.
+     */
+    public int shardForMachine(String machineId) {
+        return isSharded() ? ring.shardFor(machineId) : 0;
+    }
+
+    /**
+     * Shard holding the event_directory row of {@code eventId}.
+     */
+    public int shardForEvent(String eventId) {
+        return isSharded() ? ring.shardFor(eventId) : 0;
+    }
+
+    /**
+     * Runs {@code work} on every listed shard in parallel and returns the results in
+     * the same order. Shard 0 runs on the calling thread, so it stays inside the caller's
+     * transaction (and its read-only routing); the others go to the shard executor. The
+     * first failure is rethrown once all tasks have finished.
+     */
+    public <T> List<T> scatter(Collection<Integer> indexes, Function<Shard, T> work) {
+        if (executor == null || indexes.size() <= 1) {
+            List<T> out = new ArrayList<>(indexes.size());
+            for (int i : indexes) out.add(work.apply(shards.get(i)));
+            return out;
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            Shard shard = shards.get(i);
+            futures.add(i == 0 ? new CompletableFuture<>() : CompletableFuture.supplyAsync(() -> work.apply(shard), executor));
+        }
+        int local = List.copyOf(indexes).indexOf(0);
+        if (local >= 0) {
+            try {
+                futures.get(local).complete(work.apply(shards.get(0)));
+            } catch (RuntimeException e) {
+                futures.get(local).completeExceptionally(e);
+            }
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Shards that can hold rows matching {@code filter}: one for machine scope, all otherwise.
+     */
+    public List<Integer> shardsFor(EventFilter filter) {
+        return filter.machineScope() ? List.of(shardForMachine(filter.machineId())) : allIndexes();
+    }
+
+    public List<Integer> allIndexes() {
+        List<Integer> out = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) out.add(i);
+        return out;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (executor != null) executor.shutdownNow();
+        // Shard 0 is the application DataSource and is closed by Spring
+        for (Shard s : shards) {
+            if (s.index() > 0 && s.dataSource() instanceof AutoCloseable c) c.close();
+        }
+    }
+}
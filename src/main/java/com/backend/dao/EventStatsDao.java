@@ -0,0 +1,141 @@
+package com.backend.dao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import org.springframework.stereotype.Component;
+
+/**
+ * JDBC read path of /stats and /stats/top-defect-lines, on a single node or across shards.
+ *
+ * machineStats: all rows of a machine live on one shard, so one query.
+ * topDefectLines: unsharded, PostgreSQL ranks and limits; sharded, a line's machines are
+ * spread over shards, so every shard returns its full per-line partial aggregate and the
+ * merge re-applies ORDER BY / LIMIT.
+ *
+ * Rows map straight into primitive records (no entity, no projection proxy). The SQL text
+ * is constant, so after prepareThreshold executions pgjdbc reuses one named server-side
+ * statement per pooled connection instead of parsing and planning again.
+ *
+ * Timed as event.stats.query{query}, including the merge.
+ */
+@Component
+public class EventStatsDao {
+
+    private static final String MACHINE_STATS_SQL = """
+        SELECT
+          COUNT(*) AS eventsCount,
+          COALESCE(SUM(CASE WHEN defect_count = -1 THEN 0 ELSE defect_count END), 0) AS defectsCount
+        FROM event
+        WHERE machine_id = ?
+          AND event_time >= ?
+          AND event_time < ?
+        """;
+
+    private static final String TOP_LINES_SQL = """
+        SELECT
+          line_id AS lineId,
+          COUNT(*) AS eventCount,
+          COALESCE(SUM(CASE WHEN defect_count = -1 THEN 0 ELSE defect_count END), 0) AS totalDefects
+        FROM event
+        WHERE factory_id = ?
+          AND event_time >= ?
+          AND event_time < ?
+        GROUP BY line_id
+        ORDER BY totalDefects DESC, eventCount DESC, line_id COLLATE "C"
+        LIMIT ?
+        """;
+
+    private static final String LINE_PARTIALS_SQL = """
+        SELECT
+          line_id AS lineId,
+          COUNT(*) AS eventCount,
+          COALESCE(SUM(CASE WHEN defect_count = -1 THEN 0 ELSE defect_count END), 0) AS totalDefects
+        FROM event
+        WHERE factory_id = ?
+          AND event_time >= ?
+          AND event_time < ?
+        GROUP BY line_id
+        """;
+
+    private final EventShards shards;
+    private final Timer machineStatsTimer;
+    private final Timer topLinesTimer;
+
+    public EventStatsDao(EventShards shards, MeterRegistry registry) {
+        this.shards = shards;
+        this.machineStatsTimer = queryTimer(registry, "machineStats");
+        this.topLinesTimer = queryTimer(registry, "topDefectLines");
+    }
+
+    private static Timer queryTimer(MeterRegistry registry, String query) {
+        return Timer.builder("event.stats.query")
+                .description("Stats queries, including the merge of shard partials")
+                .tag("query", query)
+                .register(registry);
+    }
+
+    public record MachineStats(long eventsCount, long defectsCount) {}
+
+    public record LineStats(String lineId, long eventCount, long totalDefects) {
+
+        // totalDefects DESC, eventCount DESC; lineId only breaks exact ties (as COLLATE "C" above)
+        public static final Comparator<LineStats> RANKING = Comparator.comparingLong(LineStats::totalDefects).reversed()
+                .thenComparing(Comparator.comparingLong(LineStats::eventCount).reversed())
+                .thenComparing(LineStats::lineId);
+    }
+
+    public MachineStats machineStats(String machineId, Instant start, Instant end) {
+        var shard = shards.get(shards.shardForMachine(machineId));
+        return machineStatsTimer.record(() -> shard.jdbc().queryForObject(MACHINE_STATS_SQL,
+                (rs, n) -> new MachineStats(rs.getLong(1), rs.getLong(2)),
+                machineId, Timestamp.from(start), Timestamp.from(end)));
+    }
+
+    public List<LineStats> topDefectLines(String factoryId, Instant from, Instant to, int limit) {
+        return topLinesTimer.record(() -> shards.isSharded()
+                ? mergeTopLines(factoryId, from, to, limit)
+                : shards.get(0).jdbc().query(TOP_LINES_SQL,
+                        (rs, n) -> new LineStats(rs.getString(1), rs.getLong(2), rs.getLong(3)),
+                        factoryId, Timestamp.from(from), Timestamp.from(to), limit));
+    }
+
+    /**
+     * Every line's partial aggregate of {@code factoryId} in [from, to), over all shards,
+     * unranked: the input of a merge with another tier (see {@link #top}).
+     */
+    public List<LineStats> lineStats(String factoryId, Instant from, Instant to) {
+        return topLinesTimer.record(() -> shards.scatter(shards.allIndexes(), shard -> shard.jdbc().query(LINE_PARTIALS_SQL,
+                (rs, n) -> new LineStats(rs.getString(1), rs.getLong(2), rs.getLong(3)),
+                factoryId, Timestamp.from(from), Timestamp.from(to))).stream().flatMap(List::stream).toList());
+    }
+
+    private List<LineStats> mergeTopLines(String factoryId, Instant from, Instant to, int limit) {
+        List<List<LineStats>> partials = shards.scatter(shards.allIndexes(), shard -> shard.jdbc().query(LINE_PARTIALS_SQL,
+                (rs, n) -> new LineStats(rs.getString(1), rs.getLong(2), rs.getLong(3)),
+                factoryId, Timestamp.from(from), Timestamp.from(to)));
+        return top(partials, limit);
+    }
+
+    /**
+     * Sums partial aggregates by line and re-applies the ranking and limit of TOP_LINES_SQL.
+     */
+    public static List<LineStats> top(List<List<LineStats>> partials, int limit) {
+        Map<String, long[]> merged = new HashMap<>();
+        for (List<LineStats> partial : partials) {
+            for (LineStats p : partial) {
+                long[] acc = merged.computeIfAbsent(p.lineId(), k -> new long[2]);
+                acc[0] += p.eventCount();
+                acc[1] += p.totalDefects();
+            }
+        }
+
+        return merged.entrySet().stream()
+                .map(e -> new LineStats(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .sorted(LineStats.RANKING)
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,64 @@
+package com.backend.dao;
+
+import java.util.Arrays;
+
+/**
+ * Consistent-hash ring over shard indexes.
+ *
+ * Each shard owns {@code virtualNodes} points on a 64-bit ring; a key belongs to the first
+ * point clockwise from its hash. Adding a shard moves roughly 1/N of the keys.
+ *
+ * The hash (FNV-1a 64 + murmur3 finaliser) is fixed: changing it re-homes every stored
+ * event, so treat it like an on-disk format.
+ */
+public final class ShardRing {
+
+    private final long[] points;
+    private final int[] owners;
+
+    public ShardRing(int shards, int virtualNodes) {
+        if (shards <= 0 || virtualNodes <= 0) throw new IllegalArgumentException("Invalid shards/virtualNodes");
+
+        int n = shards * virtualNodes;
+        long[][] pairs = new long[n][];
+        for (int s = 0; s < shards; s++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                pairs[s * virtualNodes + v] = new long[]{hash("shard-" + s + "#" + v), s};
+            }
+        }
+        Arrays.sort(pairs, (a, b) -> Long.compareUnsigned(a[0], b[0]));
+
+        points = new long[n];
+        owners = new int[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = pairs[i][0];
+            owners[i] = (int) pairs[i][1];
+        }
+    }
+
+    public int shardFor(String key) {
+        long h = hash(key);
+        // First point >= h (unsigned), wrapping to the start of the ring
+        int lo = 0, hi = points.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(points[mid], h) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return owners[lo == points.length ? 0 : lo];
+    }
+
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,381 @@
+package com.backend.dao;
+
+import com.backend.dao.EventBatchDao.EventRow;
+import java.sql.*;
+import java.util.*;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Write path of {@link EventBatchDao} when the event table is sharded by machine_id.
+ *
+ * Global event_id uniqueness comes from event_directory (one row per event_id, on the
+ * shard owning hash(event_id)), because the unique index on each shard only sees its
+ * own rows. Directory rows double as per-event locks:
+ *
+ * Insert: claim the ids (INSERT .. ON CONFLICT DO NOTHING), then write the claimed rows
+ *   to their data shards. A concurrent writer of the same id blocks on the claim until
+ *   the claiming transaction ends.
+ * Update: lock the directory rows (FOR UPDATE), apply the usual conditional update on the
+ *   home shard, or - when the new machine_id hashes elsewhere - move the row: upsert on
+ *   the new shard, delete on the old one, repoint the directory.
+ *
+ * Directory locks are always taken in (directory shard, event_id) order, one shard at a
+ * time, so two batches can never wait on each other across shards.
+ *
+ * All the work of one transaction on a shard goes through a single connection
+ * ({@link ShardConnections}): on shard 0 that is the caller's own transaction connection,
+ * so an ingest never holds two connections from the same pool. The other shards commit,
+ * in index order, just before shard 0 does.
+ *
+ * There is no two-phase commit, so a failure between those commits leaves part of the
+ * batch written. The caller always sees the failure (the transaction throws), and every
+ * data write is an idempotent upsert, so retrying the batch reconciles both leftovers:
+ * a claim whose row never committed gets its row from the update path, and a row whose
+ * claim never committed is overwritten by the new claim's upsert. The one case a retry
+ * cannot reach is a leftover row whose event is later resent with a machine_id on another
+ * shard: it stays as a stale duplicate, never as a loss.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardedEventWriter {
+
+    private static final String CLAIM_SQL = """
+        INSERT INTO event_directory (event_id, shard) VALUES (?, ?)
+        ON CONFLICT (event_id) DO NOTHING
+        """;
+
+    private static final String LOCK_SQL = """
+        SELECT event_id, shard FROM event_directory
+        WHERE event_id = ANY(?)
+        ORDER BY event_id
+        FOR UPDATE
+        """;
+
+    private static final String REPOINT_SQL = "UPDATE event_directory SET shard = ? WHERE event_id = ?";
+
+    // Claimed ids are globally new, so any existing row is a leftover of a partly committed batch
+    private static final String UPSERT_SQL = """
+        INSERT INTO event (
+          event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (event_id) DO UPDATE SET
+          factory_id = EXCLUDED.factory_id,
+          line_id = EXCLUDED.line_id,
+          machine_id = EXCLUDED.machine_id,
+          event_time = EXCLUDED.event_time,
+          received_time = EXCLUDED.received_time,
+          duration_ms = EXCLUDED.duration_ms,
+          defect_count = EXCLUDED.defect_count
+        WHERE event.received_time < EXCLUDED.received_time
+        """;
+
+    /**
+     * The conditional update as an upsert: also writes the row when its claim committed
+     * but the row itself did not. 1 when written, 0 when older or the same payload.
+     */
+    private static final String CONDITIONAL_UPSERT_SQL = """
+        INSERT INTO event (
+          event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (event_id) DO UPDATE SET
+          factory_id = EXCLUDED.factory_id,
+          line_id = EXCLUDED.line_id,
+          machine_id = EXCLUDED.machine_id,
+          event_time = EXCLUDED.event_time,
+          received_time = EXCLUDED.received_time,
+          duration_ms = EXCLUDED.duration_ms,
+          defect_count = EXCLUDED.defect_count
+        WHERE event.received_time < EXCLUDED.received_time
+          AND (
+            event.factory_id IS DISTINCT FROM EXCLUDED.factory_id OR
+            event.line_id IS DISTINCT FROM EXCLUDED.line_id OR
+            event.machine_id IS DISTINCT FROM EXCLUDED.machine_id OR
+            event.event_time IS DISTINCT FROM EXCLUDED.event_time OR
+            event.duration_ms IS DISTINCT FROM EXCLUDED.duration_ms OR
+            event.defect_count IS DISTINCT FROM EXCLUDED.defect_count
+          )
+        """;
+
+    private static final String RECEIVED_TIME_SQL = "SELECT received_time FROM event WHERE event_id = ?";
+    private static final String DELETE_SQL = "DELETE FROM event WHERE event_id = ?";
+
+    private final EventShards shards;
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface BatchBinder {
+        void bind(PreparedStatement ps, int k) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ShardWork {
+        int[] run(ShardConnections tx) throws SQLException;
+    }
+
+    public int[] insertIgnoreConflicts(List<EventRow> rows) {
+        return inShardTransaction("sharded insert", tx -> {
+            int[] result = new int[rows.size()];
+            for (var e : groupByDirectory(rows).entrySet()) {
+                List<Integer> idx = e.getValue();
+                int[] claimed = executeBatch(tx.get(e.getKey()), CLAIM_SQL, idx.size(), (ps, k) -> {
+                    EventRow r = rows.get(idx.get(k));
+                    ps.setString(1, r.eventId());
+                    ps.setInt(2, shards.shardForMachine(r.machineId()));
+                });
+                for (int k = 0; k < claimed.length; k++) {
+                    if (claimed[k] > 0) result[idx.get(k)] = 1;
+                }
+            }
+
+            Map<Integer, List<EventRow>> byData = new TreeMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (result[i] == 0) continue;
+                EventRow r = rows.get(i);
+                byData.computeIfAbsent(shards.shardForMachine(r.machineId()), k -> new ArrayList<>()).add(r);
+            }
+            shards.scatter(byData.keySet(), shard -> write(tx, shard, UPSERT_SQL, byData.get(shard.index())));
+            return result;
+        });
+    }
+
+    public int[] conditionalUpdate(List<EventRow> rows) {
+        return inShardTransaction("sharded update", tx -> {
+            int[] result = new int[rows.size()];
+            Map<String, Integer> home = new HashMap<>();
+            for (var e : groupByDirectory(rows).entrySet()) {
+                Connection con = tx.get(e.getKey());
+                String[] ids = e.getValue().stream().map(i -> rows.get(i).eventId()).distinct().toArray(String[]::new);
+                try (PreparedStatement ps = con.prepareStatement(LOCK_SQL)) {
+                    ps.setArray(1, con.createArrayOf("varchar", ids));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) home.put(rs.getString(1), rs.getInt(2));
+                    }
+                }
+            }
+
+            Map<String, Integer> occurrences = new HashMap<>();
+            for (EventRow r : rows) occurrences.merge(r.eventId(), 1, Integer::sum);
+
+            // Common case: the row stays on its shard and its id appears once -> one batch per shard
+            Map<Integer, List<Integer>> inPlace = new TreeMap<>();
+            List<Integer> oneByOne = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                EventRow r = rows.get(i);
+                Integer h = home.get(r.eventId());
+                if (h == null) continue;
+                if (h == shards.shardForMachine(r.machineId()) && occurrences.get(r.eventId()) == 1) {
+                    inPlace.computeIfAbsent(h, k -> new ArrayList<>()).add(i);
+                } else {
+                    oneByOne.add(i);
+                }
+            }
+
+            List<Integer> targets = new ArrayList<>(inPlace.keySet());
+            List<int[]> counts = shards.scatter(targets, shard -> write(tx, shard, CONDITIONAL_UPSERT_SQL,
+                    inPlace.get(shard.index()).stream().map(rows::get).toList()));
+            for (int t = 0; t < targets.size(); t++) {
+                List<Integer> idx = inPlace.get(targets.get(t));
+                int[] c = counts.get(t);
+                for (int k = 0; k < c.length; k++) result[idx.get(k)] = Math.max(0, c[k]);
+            }
+
+            // Moves and repeated ids: strictly in batch order, each step sees the previous one
+            for (int i : oneByOne) {
+                result[i] = updateOne(rows.get(i), home, tx);
+            }
+            return result;
+        });
+    }
+
+    private int updateOne(EventRow r, Map<String, Integer> home, ShardConnections tx) throws SQLException {
+        int from = home.get(r.eventId());
+        int to = shards.shardForMachine(r.machineId());
+
+        if (from == to) {
+            return Math.max(0, execute(tx.get(from), CONDITIONAL_UPSERT_SQL, ps -> EventBatchDao.setInsertValues(ps, r)));
+        }
+
+        // machine_id changed shards, so the payload differs: only "newer wins" is left to check
+        Timestamp existing;
+        try (PreparedStatement ps = tx.get(from).prepareStatement(RECEIVED_TIME_SQL)) {
+            ps.setString(1, r.eventId());
+            try (ResultSet rs = ps.executeQuery()) {
+                existing = rs.next() ? rs.getTimestamp(1) : null;
+            }
+        }
+        if (existing != null && !existing.toInstant().isBefore(r.receivedTime())) return 0;
+
+        execute(tx.get(to), UPSERT_SQL, ps -> EventBatchDao.setInsertValues(ps, r));
+        execute(tx.get(from), DELETE_SQL, ps -> ps.setString(1, r.eventId()));
+        execute(tx.get(shards.shardForEvent(r.eventId())), REPOINT_SQL, ps -> {
+            ps.setInt(1, to);
+            ps.setString(2, r.eventId());
+        });
+        home.put(r.eventId(), to);
+        return 1;
+    }
+
+    /**
+     * Row indexes grouped by directory shard (ascending), each group sorted by event_id.
+     */
+    private Map<Integer, List<Integer>> groupByDirectory(List<EventRow> rows) {
+        Map<Integer, List<Integer>> out = new TreeMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            out.computeIfAbsent(shards.shardForEvent(rows.get(i).eventId()), k -> new ArrayList<>()).add(i);
+        }
+        for (List<Integer> idx : out.values()) {
+            idx.sort(Comparator.comparing(i -> rows.get(i).eventId()));
+        }
+        return out;
+    }
+
+    /**
+     * Runs {@code work} in the caller's transaction when there is one (the shard
+     * connections then commit with it), otherwise in a transaction of its own.
+     */
+    private int[] inShardTransaction(String task, ShardWork work) {
+        try {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ShardConnections tx = (ShardConnections) TransactionSynchronizationManager.getResource(this);
+                if (tx == null) {
+                    tx = new ShardConnections(true);
+                    TransactionSynchronizationManager.bindResource(this, tx);
+                    TransactionSynchronizationManager.registerSynchronization(tx);
+                }
+                return work.run(tx);
+            }
+            try (ShardConnections tx = new ShardConnections(false)) {
+                int[] result = work.run(tx);
+                tx.commit();
+                return result;
+            }
+        } catch (SQLException e) {
+            throw translate(task, e);
+        }
+    }
+
+    /**
+     * One batch on a shard; called from the scatter, one task per shard.
+     */
+    private int[] write(ShardConnections tx, EventShards.Shard shard, String sql, List<EventRow> rows) {
+        try {
+            return executeBatch(tx.get(shard.index()), sql, rows.size(),
+                    (ps, k) -> EventBatchDao.setInsertValues(ps, rows.get(k)));
+        } catch (SQLException e) {
+            throw translate("shard " + shard.index() + " write", e);
+        }
+    }
+
+    private static int execute(Connection con, String sql, Binder binder) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            binder.bind(ps);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static int[] executeBatch(Connection con, String sql, int size, BatchBinder binder) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int k = 0; k < size; k++) {
+                binder.bind(ps, k);
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        }
+    }
+
+    private DataAccessException translate(String task, SQLException e) {
+        DataAccessException translated = shards.get(0).jdbc().getExceptionTranslator().translate(task, null, e);
+        return translated != null ? translated : new UncategorizedSQLException(task, null, e);
+    }
+
+    /**
+     * One connection per shard for the duration of a transaction.
+     *
+     * Inside a Spring transaction, shard 0 is that transaction's connection (through
+     * DataSourceUtils) and Spring commits it. It is fetched up front, on the thread that
+     * holds that binding. The other shards are opened on first use and committed in index
+     * order from beforeCommit, or by {@link #commit()} when there is no surrounding
+     * transaction.
+     */
+    private final class ShardConnections implements TransactionSynchronization, AutoCloseable {
+        private final boolean joined;
+        private final Connection first;
+        private final Map<Integer, Connection> others = new TreeMap<>();
+        private boolean committed;
+
+        ShardConnections(boolean joined) throws SQLException {
+            this.joined = joined;
+            DataSource ds = shards.get(0).dataSource();
+            this.first = joined ? DataSourceUtils.getConnection(ds) : ds.getConnection();
+            if (!joined) first.setAutoCommit(false);
+        }
+
+        synchronized Connection get(int shard) throws SQLException {
+            if (shard == 0) return first;
+            Connection con = others.get(shard);
+            if (con == null) {
+                con = shards.get(shard).dataSource().getConnection();
+                others.put(shard, con);
+                con.setAutoCommit(false);
+            }
+            return con;
+        }
+
+        synchronized void commit() throws SQLException {
+            for (Connection con : others.values()) con.commit();
+            if (!joined) first.commit();
+            committed = true;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            try {
+                commit();
+            } catch (SQLException e) {
+                throw translate("shard commit", e);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ShardedEventWriter.this);
+            close();
+        }
+
+        @Override
+        public synchronized void close() {
+            for (Connection con : others.values()) {
+                rollbackAndClose(con);
+            }
+            if (joined) {
+                DataSourceUtils.releaseConnection(first, shards.get(0).dataSource());
+            } else {
+                rollbackAndClose(first);
+            }
+        }
+
+        private void rollbackAndClose(Connection con) {
+            try {
+                if (!committed) con.rollback();
+            } catch (SQLException ignored) {
+                // connection is discarded below anyway
+            }
+            try {
+                con.close();
+            } catch (SQLException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.*;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class AggregationResponse {
+
+    @Builder.Default
+    private List<AggregationRowDto> rows = new ArrayList<>();
+
+    /**
+     * True when more groups matched than the requested limit.
+     */
+    private boolean truncated;
+
+    /**
+     * Planner estimates the cost guard was checked against.
+     */
+    private long estimatedScannedRows;
+    private long estimatedGroups;
+}
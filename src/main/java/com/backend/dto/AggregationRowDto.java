@@ -0,0 +1,25 @@
+package com.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import lombok.*;
+
+/**
+ * One group. Only the grouped dimensions and the requested metrics are set.
+ */
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AggregationRowDto {
+    private String factoryId;
+    private String lineId;
+    private String machineId;
+    private Instant bucket;
+
+    private Long eventCount;
+    private Long totalDefects;
+    private Double avgDefects; // per event with a known defect count, rounded to 2 decimals
+    private Long totalDurationMs;
+    private Double avgDurationMs; // rounded to 2 decimals
+}
@@ -0,0 +1,18 @@
+package com.backend.dto;
+
+import java.time.Instant;
+import lombok.*;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class EventDto {
+    private String eventId;
+    private String factoryId;
+    private String lineId;
+    private String machineId;
+    private Instant eventTime;
+    private Instant receivedTime;
+    private long durationMs;
+    private int defectCount;
+}
@@ -0,0 +1,19 @@
+package com.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.*;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class EventPageResponse {
+
+    @Builder.Default
+    private List<EventDto> events = new ArrayList<>();
+
+    /**
+     * Opaque token for the next page; null when this is the last page.
+     */
+    private String nextCursor;
+}
@@ -4,5 +4,6 @@ public enum RejectionReason {
     INVALID_DURATION,
     FUTURE_EVENT_TIME,
     INVALID_TIME_WINDOW,
-    INVALID_REQUEST
+    INVALID_REQUEST,
+    ARCHIVED_EVENT_TIME
 }
@@ -0,0 +1,9 @@
+package com.backend.dto;
+
+/**
+ * Where /stats reads from: the event table, or the in-process hot store (recent windows only).
+ */
+public enum StatsSource {
+    DB,
+    HOT
+}
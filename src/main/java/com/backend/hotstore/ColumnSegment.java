@@ -0,0 +1,214 @@
+package com.backend.hotstore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Fixed-capacity block of rows stored column by column in one direct (off-heap) buffer.
+ *
+ * Seven int columns, 28 bytes per row:
+ *   factory, line, machine  dictionary codes (-1 on a tombstone)
+ *   eventTime, receivedTime epoch millis as deltas from {@link #baseMillis}
+ *   duration, defects       raw values (defects -1 = unknown, as in the database)
+ *
+ * Deltas keep the times in 32 bits: the store only holds a few days of event time,
+ * {@link #fits} rejects anything further than that from the base.
+ *
+ * The event ids stay on the heap, only so that dropping the segment can remove its
+ * index entries. Not thread-safe; guarded by the store lock.
+ *
+ * The buffer comes from the store and goes back to it when the segment is dropped, so a
+ * new segment reuses it instead of reserving more direct memory (freed only when a GC
+ * gets around to the old buffer). Stale contents are harmless: only rows below
+ * {@link #size} are ever read.
+ */
+final class ColumnSegment {
+
+    static final int BYTES_PER_ROW = 7 * Integer.BYTES;
+
+    final long seq;
+    final long baseMillis;
+
+    private final int capacity;
+    private final ByteBuffer block;
+    private final IntBuffer factory;
+    private final IntBuffer line;
+    private final IntBuffer machine;
+    private final IntBuffer eventTime;
+    private final IntBuffer receivedTime;
+    private final IntBuffer duration;
+    private final IntBuffer defects;
+    private final String[] eventIds;
+
+    private int size;
+    private long minEventTime = Long.MAX_VALUE;
+    private long maxEventTime = Long.MIN_VALUE;
+
+    /**
+     * @param block {@link #allocate}d for the same capacity, new or from a dropped segment
+     */
+    ColumnSegment(long seq, long baseMillis, int capacity, ByteBuffer block) {
+        if (block.capacity() != capacity * BYTES_PER_ROW) {
+            throw new IllegalArgumentException("Block of " + block.capacity() + " bytes for " + capacity + " rows");
+        }
+        this.seq = seq;
+        this.baseMillis = baseMillis;
+        this.capacity = capacity;
+        this.block = block;
+
+        int column = capacity * Integer.BYTES;
+        this.factory = column(block, 0, column);
+        this.line = column(block, 1, column);
+        this.machine = column(block, 2, column);
+        this.eventTime = column(block, 3, column);
+        this.receivedTime = column(block, 4, column);
+        this.duration = column(block, 5, column);
+        this.defects = column(block, 6, column);
+        this.eventIds = new String[capacity];
+    }
+
+    static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * BYTES_PER_ROW);
+    }
+
+    /**
+     * The backing buffer, to recycle once this segment is dropped.
+     */
+    ByteBuffer block() {
+        return block;
+    }
+
+    private static IntBuffer column(ByteBuffer block, int index, int bytes) {
+        return block.slice(index * bytes, bytes).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    long offHeapBytes() {
+        return (long) capacity * BYTES_PER_ROW;
+    }
+
+    long minEventTime() {
+        return minEventTime;
+    }
+
+    long maxEventTime() {
+        return maxEventTime;
+    }
+
+    String eventId(int row) {
+        return eventIds[row];
+    }
+
+    /**
+     * Whether both times can be stored as deltas from this segment's base.
+     */
+    boolean fits(long eventTimeMillis, long receivedTimeMillis) {
+        return inRange(eventTimeMillis - baseMillis) && inRange(receivedTimeMillis - baseMillis);
+    }
+
+    private static boolean inRange(long delta) {
+        // Strict bounds: query windows are clamped to the int range, see #delta
+        return delta > Integer.MIN_VALUE && delta < Integer.MAX_VALUE;
+    }
+
+    int append(String eventId, int factoryCode, int lineCode, int machineCode,
+               long eventTimeMillis, long receivedTimeMillis, int durationMs, int defectCount) {
+        int row = size++;
+        eventIds[row] = eventId;
+        set(row, factoryCode, lineCode, machineCode, eventTimeMillis, receivedTimeMillis, durationMs, defectCount);
+        return row;
+    }
+
+    /**
+     * Overwrites a row in place; the caller has checked {@link #fits}.
+     */
+    void set(int row, int factoryCode, int lineCode, int machineCode,
+             long eventTimeMillis, long receivedTimeMillis, int durationMs, int defectCount) {
+        factory.put(row, factoryCode);
+        line.put(row, lineCode);
+        machine.put(row, machineCode);
+        eventTime.put(row, (int) (eventTimeMillis - baseMillis));
+        receivedTime.put(row, (int) (receivedTimeMillis - baseMillis));
+        duration.put(row, durationMs);
+        defects.put(row, defectCount);
+        minEventTime = Math.min(minEventTime, eventTimeMillis);
+        maxEventTime = Math.max(maxEventTime, eventTimeMillis);
+    }
+
+    long receivedTime(int row) {
+        return baseMillis + receivedTime.get(row);
+    }
+
+    /**
+     * Hides the row from every scan. The received time stays, so an older version of
+     * the event arriving later is still recognised as older.
+     */
+    void tombstone(int row) {
+        factory.put(row, -1);
+        machine.put(row, -1);
+    }
+
+    /**
+     * Whether any row may fall in [from, to).
+     */
+    boolean overlaps(long fromMillis, long toMillis) {
+        return size > 0 && maxEventTime >= fromMillis && minEventTime < toMillis;
+    }
+
+    /**
+     * Adds the events and known defects of {@code machineCode} in [from, to) to
+     * {@code acc[0]} and {@code acc[1]}.
+     *
+     * The loop has no data-dependent branches (non-short-circuit {@code &}, conditional
+     * moves), so the cost is the same whatever the selectivity and C2 can unroll it.
+     */
+    void machineTotals(int machineCode, long fromMillis, long toMillis, long[] acc) {
+        int lo = delta(fromMillis);
+        int hi = delta(toMillis);
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            int t = eventTime.get(i);
+            int d = defects.get(i);
+            int hit = (machine.get(i) == machineCode) & (t >= lo) & (t < hi) ? 1 : 0;
+            count += hit;
+            sum += hit * (d == -1 ? 0 : d);
+        }
+        acc[0] += count;
+        acc[1] += sum;
+    }
+
+    /**
+     * Adds the events and known defects of every line of {@code factoryCode} in [from, to)
+     * to {@code counts[line]} and {@code sums[line]}. Non-matching rows add zero to slot 0
+     * rather than branching around the update.
+     */
+    void lineTotals(int factoryCode, long fromMillis, long toMillis, long[] counts, long[] sums) {
+        int lo = delta(fromMillis);
+        int hi = delta(toMillis);
+        for (int i = 0; i < size; i++) {
+            int t = eventTime.get(i);
+            int d = defects.get(i);
+            int hit = (factory.get(i) == factoryCode) & (t >= lo) & (t < hi) ? 1 : 0;
+            int slot = line.get(i) * hit;
+            counts[slot] += hit;
+            sums[slot] += hit * (d == -1 ? 0 : d);
+        }
+    }
+
+    /**
+     * Query bound relative to the base, saturated to the int range.
+     */
+    private int delta(long millis) {
+        long d = millis - baseMillis;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, d));
+    }
+}
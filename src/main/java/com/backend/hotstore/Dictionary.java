@@ -0,0 +1,44 @@
+package com.backend.hotstore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense int codes for one string column (factory, line or machine ids).
+ *
+ * Codes are never reused: the number of distinct ids is small and bounded by the plant,
+ * so entries outlive the segments that introduced them. Not thread-safe; guarded by the
+ * store lock.
+ */
+final class Dictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) return code;
+        int next = values.size();
+        codes.put(value, next);
+        values.add(value);
+        return next;
+    }
+
+    /**
+     * Code of {@code value}, or -1 if it was never stored.
+     */
+    int lookup(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
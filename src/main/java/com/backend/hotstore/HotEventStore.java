@@ -0,0 +1,354 @@
+package com.backend.hotstore;
+
+import com.backend.dao.EventBatchDao.EventRow;
+import com.backend.dao.EventShards;
+import com.backend.dao.EventStatsDao.LineStats;
+import com.backend.dao.EventStatsDao.MachineStats;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+
+/**
+ * In-process copy of the recent events, for /stats queries that should not touch the
+ * database.
+ *
+ * Holds the accepted events whose event time lies within {@code retention} of now, in
+ * fixed-size {@link ColumnSegment}s filled in arrival order. Ingest applies each
+ * committed batch (new rows appended, updates overwritten in place, newer received time
+ * wins as in the database). Memory is bounded by dropping whole segments:
+ *  - a segment whose newest event time is older than the retention expires;
+ *  - past {@code maxMemory} one segment is evicted and the covered window starts after
+ *    its newest event time.
+ *
+ * Queries starting before the covered window are rejected instead of answered partially.
+ * The store sees this instance's ingests plus the startup preload: with several
+ * instances behind a load balancer each store misses the others' writes.
+ *
+ * Off-heap: the columns, in at most maxMemory / segment size buffers that are reused
+ * from dropped segments rather than reallocated. Heap: the event_id index (one entry per
+ * row) and the dictionaries.
+ */
+@Slf4j
+public class HotEventStore {
+
+    private static final Duration FUTURE_ALLOWANCE = Duration.ofMinutes(15);
+    private static final int PRELOAD_CHUNK = 1_000;
+
+    private static final String PRELOAD_SQL = """
+        SELECT event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count
+        FROM event
+        WHERE event_time >= ?
+        """;
+
+    private final boolean enabled;
+    private final Duration retention;
+    private final int segmentRows;
+    private final int maxSegments;
+    private final Clock clock;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<ColumnSegment> segments = new ArrayList<>();
+    private final Map<Long, ColumnSegment> bySeq = new HashMap<>();
+    // Buffers of dropped segments, handed to the next new ones
+    private final Deque<ByteBuffer> spareBlocks = new ArrayDeque<>();
+    // event_id -> (segment seq << 32 | row)
+    private final Map<String, Long> index = new HashMap<>();
+    private final Dictionary factories = new Dictionary();
+    private final Dictionary lines = new Dictionary();
+    private final Dictionary machines = new Dictionary();
+
+    private long nextSeq;
+    private long evictedThrough = Long.MIN_VALUE;
+    private long evictedSegments;
+    private volatile Instant readyFrom;
+
+    public HotEventStore(Duration retention, long maxMemoryBytes, int segmentRows, Clock clock) {
+        this(true, retention, maxMemoryBytes, segmentRows, clock);
+    }
+
+    private HotEventStore(boolean enabled, Duration retention, long maxMemoryBytes, int segmentRows, Clock clock) {
+        this.enabled = enabled;
+        this.retention = retention;
+        this.segmentRows = segmentRows;
+        this.maxSegments = (int) Math.max(1, maxMemoryBytes / ((long) segmentRows * ColumnSegment.BYTES_PER_ROW));
+        this.clock = clock;
+    }
+
+    public static HotEventStore disabled() {
+        return new HotEventStore(false, Duration.ZERO, 0, 1, Clock.systemUTC());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Applies committed rows: inserts and the updates that won in the database.
+     */
+    public void apply(List<EventRow> rows) {
+        if (!enabled || rows.isEmpty()) return;
+        lock.writeLock().lock();
+        try {
+            long cutoff = clock.millis() - retention.toMillis();
+            expire(cutoff);
+            for (EventRow r : rows) upsert(r, cutoff);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void upsert(EventRow r, long cutoff) {
+        long eventTime = r.eventTime().toEpochMilli();
+        long received = r.receivedTime().toEpochMilli();
+        int duration = (int) Math.min(r.durationMs(), Integer.MAX_VALUE);
+
+        Long pos = index.get(r.eventId());
+        if (pos != null) {
+            ColumnSegment seg = bySeq.get(pos >>> 32);
+            int row = (int) pos.longValue();
+            if (seg.receivedTime(row) >= received) return;
+            if (eventTime >= cutoff && seg.fits(eventTime, received)) {
+                seg.set(row, factories.encode(r.factoryId()), lines.encode(r.lineId()), machines.encode(r.machineId()),
+                        eventTime, received, duration, r.defectCount());
+                return;
+            }
+            // Moved out of the window, or too far from this segment's base: re-append below
+            seg.tombstone(row);
+            if (eventTime < cutoff) return;
+        } else if (eventTime < cutoff) {
+            return;
+        }
+
+        ColumnSegment seg = segments.isEmpty() ? null : segments.getLast();
+        if (seg == null || seg.isFull() || !seg.fits(eventTime, received)) {
+            seg = newSegment(eventTime);
+        }
+        int row = seg.append(r.eventId(), factories.encode(r.factoryId()), lines.encode(r.lineId()),
+                machines.encode(r.machineId()), eventTime, received, duration, r.defectCount());
+        index.put(r.eventId(), seg.seq << 32 | row);
+    }
+
+    /**
+     * Over budget, the victim is the segment with the oldest newest-event: it moves the
+     * covered window the least. Usually that is the first one; updates in place can make
+     * an older segment hold recent event times.
+     */
+    private ColumnSegment newSegment(long baseMillis) {
+        if (segments.size() >= maxSegments) {
+            ColumnSegment victim = segments.getFirst();
+            for (ColumnSegment seg : segments) {
+                if (seg.maxEventTime() < victim.maxEventTime()) victim = seg;
+            }
+            evictedThrough = Math.max(evictedThrough, victim.maxEventTime() + 1);
+            evictedSegments++;
+            drop(victim);
+        }
+        ByteBuffer block = spareBlocks.isEmpty() ? ColumnSegment.allocate(segmentRows) : spareBlocks.pop();
+        ColumnSegment seg = new ColumnSegment(nextSeq++, baseMillis, segmentRows, block);
+        segments.add(seg);
+        bySeq.put(seg.seq, seg);
+        return seg;
+    }
+
+    private void expire(long cutoff) {
+        for (ColumnSegment seg : List.copyOf(segments)) {
+            if (seg.maxEventTime() < cutoff) drop(seg);
+        }
+    }
+
+    private void drop(ColumnSegment seg) {
+        segments.remove(seg);
+        bySeq.remove(seg.seq);
+        for (int row = 0; row < seg.size(); row++) {
+            // A row re-appended elsewhere points to its new segment: keep that entry
+            index.remove(seg.eventId(row), seg.seq << 32 | row);
+        }
+        spareBlocks.push(seg.block());
+    }
+
+    /**
+     * Loads the rows of the retention window from every shard, then opens the store for
+     * queries. Ingest keeps applying batches meanwhile; whichever version of an event is
+     * newer wins, so the order does not matter.
+     *
+     * Reads the primaries (a lagging replica could miss rows committed before startup)
+     * through a cursor, applying {@value #PRELOAD_CHUNK} rows per write lock. event_time
+     * has no index of its own, so this is one sequential scan per shard, once, on a
+     * background thread.
+     */
+    public void preload(EventShards shards) {
+        if (!enabled) return;
+        Instant start = clock.instant();
+        Timestamp cutoff = Timestamp.from(start.minus(retention));
+        long loaded = 0;
+        for (EventShards.Shard shard : shards.all()) {
+            loaded += shard.jdbc().execute((ConnectionCallback<Long>) con -> {
+                boolean autoCommit = con.getAutoCommit();
+                con.setAutoCommit(false);
+                try (PreparedStatement ps = con.prepareStatement(PRELOAD_SQL)) {
+                    ps.setFetchSize(PRELOAD_CHUNK);
+                    ps.setTimestamp(1, cutoff);
+                    return load(ps);
+                } finally {
+                    con.rollback();
+                    con.setAutoCommit(autoCommit);
+                }
+            });
+        }
+        markReady(start.minus(retention));
+        log.info("Hot store preloaded {} events in {} ms", loaded, Duration.between(start, clock.instant()).toMillis());
+    }
+
+    private long load(PreparedStatement ps) throws SQLException {
+        long count = 0;
+        List<EventRow> chunk = new ArrayList<>(PRELOAD_CHUNK);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                chunk.add(new EventRow(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getTimestamp(5).toInstant(), rs.getTimestamp(6).toInstant(), rs.getLong(7), rs.getInt(8)));
+                if (chunk.size() == PRELOAD_CHUNK) {
+                    apply(chunk);
+                    count += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        apply(chunk);
+        return count + chunk.size();
+    }
+
+    /**
+     * Opens the store for queries on windows starting at {@code coveredFrom} or later.
+     * Without a preload that is startup time plus the future allowance of ingest: earlier
+     * event times may already exist in the database only.
+     */
+    public void markReady(Instant coveredFrom) {
+        readyFrom = coveredFrom;
+    }
+
+    public static Instant coverageWithoutPreload(Instant startup) {
+        return startup.plus(FUTURE_ALLOWANCE);
+    }
+
+    /**
+     * Earliest window start the store answers exactly, or null while it is not ready.
+     */
+    public Instant coveredFrom() {
+        Instant ready = readyFrom;
+        if (!enabled || ready == null) return null;
+        lock.readLock().lock();
+        try {
+            return Instant.ofEpochMilli(floorMillis(ready));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public MachineStats machineStats(String machineId, Instant from, Instant to) {
+        lock.readLock().lock();
+        try {
+            requireCovered(from);
+            int code = machines.lookup(machineId);
+            long[] acc = new long[2];
+            if (code >= 0) {
+                long lo = from.toEpochMilli();
+                long hi = to.toEpochMilli();
+                for (ColumnSegment seg : segments) {
+                    if (seg.overlaps(lo, hi)) seg.machineTotals(code, lo, hi, acc);
+                }
+            }
+            return new MachineStats(acc[0], acc[1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<LineStats> topDefectLines(String factoryId, Instant from, Instant to, int limit) {
+        lock.readLock().lock();
+        try {
+            requireCovered(from);
+            int code = factories.lookup(factoryId);
+            if (code < 0) return List.of();
+
+            long lo = from.toEpochMilli();
+            long hi = to.toEpochMilli();
+            long[] counts = new long[lines.size()];
+            long[] sums = new long[lines.size()];
+            for (ColumnSegment seg : segments) {
+                if (seg.overlaps(lo, hi)) seg.lineTotals(code, lo, hi, counts, sums);
+            }
+
+            List<LineStats> out = new ArrayList<>();
+            for (int line = 0; line < counts.length; line++) {
+                if (counts[line] > 0) out.add(new LineStats(lines.decode(line), counts[line], sums[line]));
+            }
+            return out.stream().sorted(LineStats.RANKING).limit(limit).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void requireCovered(Instant from) {
+        if (!enabled) {
+            throw new IllegalArgumentException("Hot store is disabled (app.hot-store.enabled)");
+        }
+        Instant ready = readyFrom;
+        if (ready == null) {
+            throw new IllegalArgumentException("Hot store is still loading; use source=DB");
+        }
+        long floor = floorMillis(ready);
+        if (from.toEpochMilli() < floor) {
+            throw new IllegalArgumentException("Hot store covers event times from " + Instant.ofEpochMilli(floor)
+                    + "; use source=DB for earlier windows");
+        }
+    }
+
+    private long floorMillis(Instant ready) {
+        return Math.max(ready.toEpochMilli(), Math.max(evictedThrough, clock.millis() - retention.toMillis()));
+    }
+
+    public long rows() {
+        lock.readLock().lock();
+        try {
+            return segments.stream().mapToLong(ColumnSegment::size).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Direct memory held: live segments plus the spare buffers kept for reuse.
+     */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long spare = (long) spareBlocks.size() * segmentRows * ColumnSegment.BYTES_PER_ROW;
+            return spare + segments.stream().mapToLong(ColumnSegment::offHeapBytes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long evictedSegments() {
+        lock.readLock().lock();
+        try {
+            return evictedSegments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
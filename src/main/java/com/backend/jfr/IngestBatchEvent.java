@@ -0,0 +1,95 @@
+package com.backend.jfr;
+
+import com.backend.dto.BatchIngestResponse;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One POST /events/batch call in the service, from entry to the end of its transaction.
+ *
+ * The stage times are the same values that feed the ingest.stage timers, so a slow
+ * recording entry can be matched against the Prometheus histograms.
+ */
+@Name("com.backend.IngestBatch")
+@Label("Ingest Batch")
+@Category({"Factory Events", "Ingest"})
+@Description("One /events/batch call: outcome counts, statements and time per stage")
+@StackTrace(false)
+public class IngestBatchEvent extends Event {
+
+    @Label("Batch Size")
+    int batchSize;
+
+    @Label("Accepted")
+    long accepted;
+
+    @Label("Deduped")
+    long deduped;
+
+    @Label("Updated")
+    long updated;
+
+    @Label("Rejected")
+    long rejected;
+
+    @Label("Insert Statements")
+    @Description("Rows sent in the INSERT .. ON CONFLICT DO NOTHING batch")
+    int insertStatements;
+
+    @Label("Update Statements")
+    @Description("Rows sent in the conditional UPDATE batch")
+    int updateStatements;
+
+    @Label("Validate Time")
+    @Timespan
+    long validateTime;
+
+    @Label("Insert Time")
+    @Timespan
+    long insertTime;
+
+    @Label("Update Time")
+    @Timespan
+    long updateTime;
+
+    @Label("Commit Time")
+    @Timespan
+    long commitTime;
+
+    @Label("Committed")
+    boolean committed;
+
+    public void validated(long nanos) {
+        validateTime = nanos;
+    }
+
+    public void inserted(int statements, long nanos) {
+        insertStatements = statements;
+        insertTime = nanos;
+    }
+
+    public void updated(int statements, long nanos) {
+        updateStatements = statements;
+        updateTime = nanos;
+    }
+
+    /**
+     * Ends the event and writes it if a recording wants it; a no-op otherwise.
+     */
+    public void complete(int batchSize, BatchIngestResponse resp, long commitNanos, boolean committed) {
+        if (!shouldCommit()) return;
+        this.batchSize = batchSize;
+        this.accepted = resp.getAccepted();
+        this.deduped = resp.getDeduped();
+        this.updated = resp.getUpdated();
+        this.rejected = resp.getRejected();
+        this.commitTime = commitNanos;
+        this.committed = committed;
+        commit();
+    }
+}
@@ -0,0 +1,43 @@
+package com.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One write batch of EventBatchDao, including the directory round trips in sharded mode.
+ */
+@Name("com.backend.JdbcBatch")
+@Label("Event Write Batch")
+@Category({"Factory Events", "JDBC"})
+@Description("One batched INSERT or conditional UPDATE against the event table")
+@StackTrace(false)
+public class JdbcBatchEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Statements")
+    @Description("Statements in the JDBC batch (one per row)")
+    int statements;
+
+    @Label("Affected Rows")
+    long affectedRows;
+
+    @Label("Sharded")
+    boolean sharded;
+
+    public void complete(String operation, int[] counts, boolean sharded) {
+        if (!shouldCommit()) return;
+        long affected = 0;
+        for (int c : counts) affected += Math.max(0, c);
+        this.operation = operation;
+        this.statements = counts.length;
+        this.affectedRows = affected;
+        this.sharded = sharded;
+        commit();
+    }
+}
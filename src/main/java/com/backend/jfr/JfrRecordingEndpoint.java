@@ -0,0 +1,188 @@
+package com.backend.jfr;
+
+import com.backend.config.JfrProperties;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/jfr: one bounded Flight Recorder recording at a time.
+ *
+ * GET    /actuator/jfr          state of the current (or last) recording
+ * POST   /actuator/jfr          start; body {"duration": "2m", "settings": "default|profile"}
+ * DELETE /actuator/jfr          stop early
+ * GET    /actuator/jfr/{file}   download the finished recording
+ *
+ * A recording always has a duration (capped by app.jfr.max-duration) and a disk budget,
+ * so a forgotten one stops by itself. Starting a new recording deletes the previous file.
+ *
+ * Not exposed over HTTP unless listed in management.endpoints.web.exposure.include.
+ * The stock settings also record the process environment, system properties and
+ * command lines, where DB_PASSWORD and friends live; those events are always off.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrRecordingEndpoint implements DisposableBean {
+
+    private static final int STATUS_CONFLICT = 409;
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation", "jdk.SystemProcess");
+
+    private final JfrProperties properties;
+
+    private Recording recording;
+    private String settingsName;
+    private Path file;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        if (recording == null) {
+            out.put("state", "NONE");
+            return out;
+        }
+        // JFR closes a recording once it has been written to its destination; both read as STOPPED
+        out.put("state", isRunning() ? recording.getState().name() : "STOPPED");
+        out.put("name", recording.getName());
+        out.put("settings", settingsName);
+        out.put("startTime", recording.getStartTime());
+        out.put("stopTime", recording.getStopTime());
+        out.put("duration", recording.getDuration());
+        out.put("maxSize", recording.getMaxSize());
+        if (!isRunning() && Files.exists(file)) {
+            out.put("file", file.getFileName().toString());
+            out.put("size", sizeOf(file));
+        }
+        return out;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Duration duration,
+                                                                       @Nullable String settings) {
+        if (isRunning()) {
+            return error(STATUS_CONFLICT, "A recording is already running");
+        }
+        Duration d = duration == null ? properties.getDefaultDuration() : duration;
+        if (d.isNegative() || d.isZero() || d.compareTo(properties.getMaxDuration()) > 0) {
+            return error(WebEndpointResponse.STATUS_BAD_REQUEST,
+                    "Invalid duration (max " + properties.getMaxDuration() + ")");
+        }
+        String s = settings == null ? "default" : settings;
+        if (!SETTINGS.contains(s)) {
+            return error(WebEndpointResponse.STATUS_BAD_REQUEST, "Invalid settings (default|profile)");
+        }
+
+        discardPrevious();
+        try {
+            Files.createDirectories(properties.getDirectory());
+            String name = "factory-events-" + System.currentTimeMillis();
+            Path target = properties.getDirectory().resolve(name + ".jfr");
+
+            Recording r = new Recording(Configuration.getConfiguration(s));
+            r.setName(name);
+            r.enable(IngestBatchEvent.class);
+            r.enable(JdbcBatchEvent.class);
+            r.enable(StatsQueryEvent.class);
+            SENSITIVE_EVENTS.forEach(r::disable);
+            r.setToDisk(true);
+            r.setMaxSize(properties.getMaxSize().toBytes());
+            r.setDuration(d);
+            r.setDestination(target);
+            r.start();
+
+            recording = r;
+            settingsName = s;
+            file = target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Unreadable JFR settings: " + s, e);
+        }
+        return new WebEndpointResponse<>(status());
+    }
+
+    /**
+     * Stops the recording before its duration; the file is written before this returns.
+     */
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> stop() {
+        if (!isRunning()) {
+            return error(STATUS_CONFLICT, "No recording is running");
+        }
+        recording.stop();
+        return new WebEndpointResponse<>(status());
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector String name) {
+        if (file == null || !file.getFileName().toString().equals(name)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (isRunning()) {
+            return new WebEndpointResponse<>(STATUS_CONFLICT);
+        }
+        if (!Files.exists(file)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file));
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (recording != null) recording.close();
+    }
+
+    private boolean isRunning() {
+        if (recording == null) return false;
+        RecordingState state = recording.getState();
+        return state == RecordingState.NEW || state == RecordingState.DELAYED || state == RecordingState.RUNNING;
+    }
+
+    private void discardPrevious() {
+        if (recording == null) return;
+        recording.close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // a stale file is overwritten or left for the operator, never fatal
+        }
+        recording = null;
+        file = null;
+    }
+
+    private static long sizeOf(Path p) {
+        try {
+            return Files.size(p);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> error(int status, String message) {
+        return new WebEndpointResponse<>(Map.of("error", message), status);
+    }
+}
@@ -0,0 +1,54 @@
+package com.backend.jfr;
+
+import java.time.Instant;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * One /stats or /stats/top-defect-lines query, including the merge of shard partials.
+ */
+@Name("com.backend.StatsQuery")
+@Label("Stats Query")
+@Category({"Factory Events", "Stats"})
+@Description("One stats query with its window and the number of SQL statements it took")
+@StackTrace(false)
+public class StatsQueryEvent extends Event {
+
+    @Label("Query")
+    String query;
+
+    @Label("Key")
+    @Description("machineId or factoryId")
+    String key;
+
+    @Label("Window Start")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long windowStart;
+
+    @Label("Window End")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long windowEnd;
+
+    @Label("Statements")
+    @Description("SQL statements issued: one, or one per shard queried")
+    int statements;
+
+    @Label("Rows")
+    int rows;
+
+    public void complete(String query, String key, Instant from, Instant to, int statements, int rows) {
+        if (!shouldCommit()) return;
+        this.query = query;
+        this.key = key;
+        this.windowStart = from.toEpochMilli();
+        this.windowEnd = to.toEpochMilli();
+        this.statements = statements;
+        this.rows = rows;
+        commit();
+    }
+}
@@ -0,0 +1,95 @@
+package com.backend.jfr;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Streams the JDK's {@code jdk.VirtualThreadPinned} events: a virtual thread that blocked
+ * for at least the threshold while it could not unmount from its carrier (on Java 21,
+ * inside a synchronized block or a native frame). Each occurrence is timed in
+ * {@code jvm.threads.virtual.pinned}, tagged with the first non-JDK frame, e.g. the
+ * driver or pool method that held the monitor; the first occurrence at each site is
+ * logged with its stack.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int MAX_LOGGED_SITES = 50;
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final RecordingStream stream;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    private VirtualThreadPinningMonitor() {
+        this.meterRegistry = null;
+        this.stream = null;
+    }
+
+    /**
+     * A monitor that streams nothing, for platform-thread mode.
+     */
+    public static VirtualThreadPinningMonitor disabled() {
+        return new VirtualThreadPinningMonitor();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String site = site(frames);
+        if (meterRegistry != null) {
+            Timer.builder("jvm.threads.virtual.pinned")
+                    .description("Time virtual threads blocked while pinned to their carrier")
+                    .tag("site", site)
+                    .register(meterRegistry)
+                    .record(event.getDuration());
+        }
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at {}:\n\t{}", event.getDuration().toMillis(), site,
+                    frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::format)
+                            .collect(Collectors.joining("\n\t")));
+        }
+    }
+
+    /**
+     * The first frame outside the JDK, the code that holds the monitor (or "jdk").
+     */
+    static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame f : frames) {
+            String type = f.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + f.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+
+    private static String format(RecordedFrame f) {
+        return f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) stream.close();
+    }
+}
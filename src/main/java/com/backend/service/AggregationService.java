@@ -0,0 +1,84 @@
+package com.backend.service;
+
+import com.backend.config.AggregationProperties;
+import com.backend.dao.AggregationDao;
+import com.backend.dao.AggregationQuery;
+import com.backend.dao.AggregationQuery.Metric;
+import com.backend.dto.AggregationResponse;
+import com.backend.dto.AggregationRowDto;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class AggregationService {
+
+    private final AggregationDao aggregationDao;
+    private final AggregationProperties props;
+
+    @Transactional(readOnly = true)
+    public AggregationResponse aggregate(AggregationQuery query, int limit) {
+        int safeLimit = clampLimit(limit);
+
+        // Cost guard: ask the planner first, so an expensive request never starts scanning
+        var estimate = aggregationDao.estimate(query);
+        if (estimate.scannedRows() > props.getMaxScanRows()) {
+            throw new IllegalArgumentException("Aggregation too expensive: ~" + estimate.scannedRows()
+                    + " rows to scan (max " + props.getMaxScanRows() + "); narrow the window or add filters");
+        }
+        if (estimate.groups() > props.getMaxGroups()) {
+            throw new IllegalArgumentException("Aggregation too expensive: ~" + estimate.groups()
+                    + " groups (max " + props.getMaxGroups() + "); group by fewer dimensions or a coarser bucket");
+        }
+
+        var groups = aggregationDao.aggregate(query, safeLimit);
+        boolean truncated = groups.size() > safeLimit;
+
+        List<AggregationRowDto> rows = (truncated ? groups.subList(0, safeLimit) : groups).stream()
+                .map(g -> toRow(query, g))
+                .toList();
+
+        return AggregationResponse.builder()
+                .rows(rows)
+                .truncated(truncated)
+                .estimatedScannedRows(estimate.scannedRows())
+                .estimatedGroups(estimate.groups())
+                .build();
+    }
+
+    private static AggregationRowDto toRow(AggregationQuery query, AggregationDao.Group g) {
+        var row = new AggregationRowDto();
+        for (int i = 0; i < query.groupBy().size(); i++) {
+            Object key = g.key().get(i);
+            switch (query.groupBy().get(i)) {
+                case FACTORY -> row.setFactoryId((String) key);
+                case LINE -> row.setLineId((String) key);
+                case MACHINE -> row.setMachineId((String) key);
+                case TIME -> row.setBucket((Instant) key);
+            }
+        }
+
+        var metrics = query.metrics();
+        if (metrics.contains(Metric.COUNT)) row.setEventCount(g.eventCount());
+        if (metrics.contains(Metric.SUM_DEFECTS)) row.setTotalDefects(g.totalDefects());
+        if (metrics.contains(Metric.AVG_DEFECTS)) row.setAvgDefects(average(g.totalDefects(), g.knownDefectEvents()));
+        if (metrics.contains(Metric.SUM_DURATION)) row.setTotalDurationMs(g.totalDurationMs());
+        if (metrics.contains(Metric.AVG_DURATION)) row.setAvgDurationMs(average(g.totalDurationMs(), g.eventCount()));
+        return row;
+    }
+
+    private static double average(long sum, long count) {
+        double v = (count == 0) ? 0.0 : (double) sum / count;
+        return BigDecimal.valueOf(v).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private int clampLimit(int limit) {
+        if (limit <= 0) return Math.min(1000, props.getMaxGroups());
+        return Math.min(limit, props.getMaxGroups());
+    }
+}
@@ -0,0 +1,107 @@
+package com.backend.service;
+
+import com.backend.dao.EventExportDao;
+import com.backend.dao.EventFilter;
+import com.backend.dto.ExportFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class EventExportService {
+
+    private static final String CSV_HEADER =
+            "eventId,factoryId,lineId,machineId,eventTime,receivedTime,durationMs,defectCount\n";
+
+    private final EventExportDao eventExportDao;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes every event matching {@code filter} to {@code out} as rows arrive from the cursor.
+     * Read-only transaction keeps autocommit off so the driver can use a server-side cursor.
+     * The caller owns {@code out}; it is flushed but not closed.
+     *
+     * Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(EventFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        AtomicLong rows = new AtomicLong();
+        try {
+            if (format == ExportFormat.CSV) {
+                Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 32 * 1024);
+                w.write(CSV_HEADER);
+                eventExportDao.stream(filter, rs -> {
+                    writeCsv(w, rs);
+                    rows.incrementAndGet();
+                });
+                w.flush();
+            } else {
+                JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+                gen.setRootValueSeparator(null);
+                eventExportDao.stream(filter, rs -> {
+                    writeJson(gen, rs);
+                    rows.incrementAndGet();
+                });
+                gen.flush();
+            }
+        } catch (UncheckedIOException e) {
+            // Client went away mid-stream; surface the original IOException
+            throw e.getCause();
+        }
+        return rows.get();
+    }
+
+    private static void writeJson(JsonGenerator gen, ResultSet rs) throws SQLException {
+        try {
+            gen.writeStartObject();
+            gen.writeStringField("eventId", rs.getString(1));
+            gen.writeStringField("factoryId", rs.getString(2));
+            gen.writeStringField("lineId", rs.getString(3));
+            gen.writeStringField("machineId", rs.getString(4));
+            gen.writeStringField("eventTime", rs.getTimestamp(5).toInstant().toString());
+            gen.writeStringField("receivedTime", rs.getTimestamp(6).toInstant().toString());
+            gen.writeNumberField("durationMs", rs.getLong(7));
+            gen.writeNumberField("defectCount", rs.getInt(8));
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsv(Writer w, ResultSet rs) throws SQLException {
+        try {
+            writeCsvField(w, rs.getString(1)); w.write(',');
+            writeCsvField(w, rs.getString(2)); w.write(',');
+            writeCsvField(w, rs.getString(3)); w.write(',');
+            writeCsvField(w, rs.getString(4)); w.write(',');
+            w.write(rs.getTimestamp(5).toInstant().toString()); w.write(',');
+            w.write(rs.getTimestamp(6).toInstant().toString()); w.write(',');
+            w.write(Long.toString(rs.getLong(7))); w.write(',');
+            w.write(Integer.toString(rs.getInt(8)));
+            w.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // RFC 4180: quote only when needed, double embedded quotes
+    private static void writeCsvField(Writer w, String v) throws IOException {
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) {
+            w.write(v);
+            return;
+        }
+        w.write('"');
+        w.write(v.replace("\"", "\"\""));
+        w.write('"');
+    }
+}
@@ -0,0 +1,46 @@
+package com.backend.service;
+
+import com.backend.dao.EventCursor;
+import com.backend.dao.EventFilter;
+import com.backend.dao.EventQueryDao;
+import com.backend.dto.EventDto;
+import com.backend.dto.EventPageResponse;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class EventQueryService {
+
+    private final EventQueryDao eventQueryDao;
+
+    @Transactional(readOnly = true)
+    public EventPageResponse findEvents(EventFilter filter, String cursor, int limit) {
+        int safeLimit = clampLimit(limit);
+        EventCursor after = (cursor == null || cursor.isBlank()) ? null : EventCursor.decode(cursor);
+
+        // One extra row tells us whether another page exists without a COUNT
+        var rows = eventQueryDao.findPage(filter, after, safeLimit + 1);
+        boolean hasMore = rows.size() > safeLimit;
+        var page = hasMore ? rows.subList(0, safeLimit) : rows;
+
+        List<EventDto> events = page.stream().map(EventQueryDao.PageRow::event).toList();
+        String next = null;
+        if (hasMore) {
+            var last = page.get(page.size() - 1);
+            next = new EventCursor(last.event().getEventTime(), last.shard(), last.id()).encode();
+        }
+
+        return EventPageResponse.builder()
+                .events(events)
+                .nextCursor(next)
+                .build();
+    }
+
+    private static int clampLimit(int limit) {
+        if (limit <= 0) return 100;
+        return Math.min(limit, 1000);
+    }
+}
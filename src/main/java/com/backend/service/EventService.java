@@ -1,7 +1,10 @@
 package com.backend.service;
 
+import com.backend.archive.ArchiveCatalog;
 import com.backend.dao.EventBatchDao;
 import com.backend.dto.*;
+import com.backend.hotstore.HotEventStore;
+import com.backend.jfr.IngestBatchEvent;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import java.time.*;
@@ -9,6 +12,8 @@ import java.util.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
@@ -20,14 +25,46 @@ public class EventService {
     private final EventBatchDao eventBatchDao;
     private final Clock clock;
     private final Validator validator;
+    private final IngestMetrics ingestMetrics;
+    private final HotEventStore hotEventStore;
+    private final ArchiveCatalog archiveCatalog;
 
     @Transactional
     public BatchIngestResponse ingestBatch(List<EventIngestRequest> requests) {
+        return ingestBatch(requests, false);
+    }
+
+    /**
+     * {@link #ingestBatch} for records loaded from files: each keeps the receivedTime it
+     * carries (capped at now), so which of two versions of an event wins does not depend
+     * on which backfill worker commits first. A record without one is stamped on arrival,
+     * as over HTTP.
+     */
+    @Transactional
+    public BatchIngestResponse ingestRecorded(List<EventIngestRequest> requests) {
+        return ingestBatch(requests, true);
+    }
+
+    private BatchIngestResponse ingestBatch(List<EventIngestRequest> requests, boolean keepReceivedTime) {
         BatchIngestResponse resp = BatchIngestResponse.builder().build();
         if (requests == null || requests.isEmpty()) {
             return resp;
         }
 
+        IngestBatchEvent event = new IngestBatchEvent();
+        event.begin();
+        List<EventBatchDao.EventRow> written = ingest(requests, keepReceivedTime, resp, event);
+        recordOnCommit(requests.size(), resp, event, written);
+        return resp;
+    }
+
+    /**
+     * Returns the rows that changed the database (inserted, or updated because newer),
+     * collected only when the hot store needs them.
+     */
+    private List<EventBatchDao.EventRow> ingest(List<EventIngestRequest> requests, boolean keepReceivedTime,
+                                                BatchIngestResponse resp, IngestBatchEvent event) {
+        long start = System.nanoTime();
         Instant now = Instant.now(clock);
 
         // 1) Validate + map to rows
@@ -39,38 +76,49 @@ public class EventService {
                 continue;
             }
 
-            // Ignore client receivedTime; set server-side time
-            Instant receivedTime = Instant.now(clock);
-
-            validRows.add(new EventBatchDao.EventRow(
-                    r.getEventId(),
-                    r.getFactoryId(),
-                    r.getLineId(),
-                    r.getMachineId(),
-                    r.getEventTime(),
-                    receivedTime,
-                    r.getDurationMs(),
-                    r.getDefectCount()
-            ));
+            // Ignore client receivedTime; set server-side time (files keep theirs, never past now)
+            Instant received = Instant.now(clock);
+            if (keepReceivedTime && r.getReceivedTime() != null && r.getReceivedTime().isBefore(received)) {
+                received = r.getReceivedTime();
+            }
+            validRows.add(toRow(r, received));
         }
 
-        if (validRows.isEmpty()) return resp;
+        long validated = System.nanoTime();
+        ingestMetrics.stage(IngestMetrics.Stage.VALIDATE, validated - start);
+        event.validated(validated - start);
+        if (validRows.isEmpty()) return List.of();
 
         // 2) Insert new events (conflicts -> count=0)
         int[] insertCounts = eventBatchDao.batchInsertIgnoreConflicts(validRows);
+        long inserted = System.nanoTime();
+        ingestMetrics.stage(IngestMetrics.Stage.INSERT, inserted - validated);
+        event.inserted(validRows.size(), inserted - validated);
 
         long accepted = 0;
         List<EventBatchDao.EventRow> conflicted = new ArrayList<>();
+        List<EventBatchDao.EventRow> written = hotEventStore.isEnabled() ? new ArrayList<>() : List.of();
         for (int i = 0; i < insertCounts.length; i++) {
-            if (insertCounts[i] > 0) accepted++;
-            else conflicted.add(validRows.get(i));
+            if (insertCounts[i] > 0) {
+                accepted++;
+                if (hotEventStore.isEnabled()) written.add(validRows.get(i));
+            } else {
+                conflicted.add(validRows.get(i));
+            }
         }
 
         // 3) Update conflicted events if newer receivedTime AND payload differs
         long updated = 0;
         if (!conflicted.isEmpty()) {
             int[] updateCounts = eventBatchDao.batchConditionalUpdate(conflicted);
-            for (int c : updateCounts) updated += Math.max(0, c);
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] <= 0) continue;
+                updated += updateCounts[i];
+                if (hotEventStore.isEnabled()) written.add(conflicted.get(i));
+            }
+            long updateNanos = System.nanoTime() - inserted;
+            ingestMetrics.stage(IngestMetrics.Stage.UPDATE, updateNanos);
+            event.updated(conflicted.size(), updateNanos);
         }
 
         long valid = validRows.size();
@@ -79,8 +127,44 @@ public class EventService {
         resp.setAccepted(resp.getAccepted() + accepted);
         resp.setUpdated(resp.getUpdated() + updated);
         resp.setDeduped(resp.getDeduped() + deduped);
+        return written;
+    }
 
-        return resp;
+    /**
+     * Times the commit and counts the outcomes once the transaction has committed,
+     * so a rolled-back batch is not reported as accepted. The JFR event is written
+     * either way, flagged with the outcome of the transaction. The hot store only
+     * receives committed rows.
+     */
+    private void recordOnCommit(int batchSize, BatchIngestResponse resp, IngestBatchEvent event,
+                                List<EventBatchDao.EventRow> written) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            hotEventStore.apply(written);
+            ingestMetrics.batch(batchSize, resp);
+            event.complete(batchSize, resp, 0, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStart;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStart = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    event.complete(batchSize, resp, 0, false);
+                    return;
+                }
+                long commitNanos = System.nanoTime() - commitStart;
+                hotEventStore.apply(written);
+                ingestMetrics.stage(IngestMetrics.Stage.COMMIT, commitNanos);
+                ingestMetrics.batch(batchSize, resp);
+                event.complete(batchSize, resp, commitNanos, true);
+            }
+        });
     }
 
     private void reject(BatchIngestResponse resp, EventIngestRequest r, RejectionReason reason) {
@@ -91,7 +175,21 @@ public class EventService {
         resp.setRejected(resp.getRejected() + 1);
     }
 
-    private Optional<RejectionReason> validate(EventIngestRequest r, Instant now) {
+    static EventBatchDao.EventRow toRow(EventIngestRequest r, Instant receivedTime) {
+        return new EventBatchDao.EventRow(
+                r.getEventId(),
+                r.getFactoryId(),
+                r.getLineId(),
+                r.getMachineId(),
+                r.getEventTime(),
+                receivedTime,
+                r.getDurationMs(),
+                r.getDefectCount()
+        );
+    }
+
+    // Package-private for the JMH benchmarks (src/jmh/java)
+    Optional<RejectionReason> validate(EventIngestRequest r, Instant now) {
         if (r == null) return Optional.of(RejectionReason.INVALID_REQUEST);
 
         Set<ConstraintViolation<EventIngestRequest>> violations = validator.validate(r);
@@ -103,6 +201,9 @@ public class EventService {
         Instant eventTime = r.getEventTime();
         if (eventTime.isAfter(now.plus(FUTURE_ALLOWANCE))) return Optional.of(RejectionReason.FUTURE_EVENT_TIME);
 
+        // Archived days are immutable: a resent event must not reappear in the table
+        if (archiveCatalog.isArchived(eventTime)) return Optional.of(RejectionReason.ARCHIVED_EVENT_TIME);
+
         return Optional.empty();
     }
 }
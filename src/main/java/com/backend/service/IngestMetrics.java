@@ -0,0 +1,82 @@
+package com.backend.service;
+
+import com.backend.dto.BatchIngestResponse;
+import com.backend.dto.RejectionDto;
+import com.backend.dto.RejectionReason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of POST /events/batch, registered once so the per-batch path only does
+ * primitive arithmetic (no tag or meter lookups, no per-event allocation).
+ *
+ * ingest.stage{stage}            time per stage of one batch
+ * ingest.batch.size              events per request
+ * ingest.events{outcome,reason}  accepted / deduped / updated / rejected (reason = RejectionReason)
+ *
+ * Percentile histograms are switched on in application.yaml
+ * (management.metrics.distribution.percentiles-histogram.*).
+ */
+@Component
+public class IngestMetrics {
+
+    public enum Stage { BIND, VALIDATE, INSERT, UPDATE, COMMIT }
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final DistributionSummary batchSize;
+    private final Counter accepted;
+    private final Counter deduped;
+    private final Counter updated;
+    private final Counter[] rejected = new Counter[RejectionReason.values().length];
+
+    public IngestMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("ingest.stage")
+                    .description("Time spent per stage of one /events/batch request")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        batchSize = DistributionSummary.builder("ingest.batch.size")
+                .description("Events per /events/batch request")
+                .baseUnit("events")
+                .register(registry);
+        accepted = outcome(registry, "accepted", "none");
+        deduped = outcome(registry, "deduped", "none");
+        updated = outcome(registry, "updated", "none");
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejected[reason.ordinal()] = outcome(registry, "rejected", reason.name());
+        }
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome, String reason) {
+        return Counter.builder("ingest.events")
+                .description("Ingested events by outcome")
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    public void stage(Stage stage, long nanos) {
+        stages.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void batch(int size, BatchIngestResponse resp) {
+        batchSize.record(size);
+        if (resp.getAccepted() > 0) accepted.increment(resp.getAccepted());
+        if (resp.getDeduped() > 0) deduped.increment(resp.getDeduped());
+        if (resp.getUpdated() > 0) updated.increment(resp.getUpdated());
+
+        List<RejectionDto> rejections = resp.getRejections();
+        for (int i = 0; i < rejections.size(); i++) {
+            rejected[rejections.get(i).getReason().ordinal()].increment();
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.backend.service;
 
+import com.backend.archive.ArchiveCatalog;
+import com.backend.dao.EventShards;
+import com.backend.dao.EventStatsDao;
 import com.backend.dto.MachineStatsResponse;
 import com.backend.dto.TopDefectLineDto;
-import com.backend.repository.EventRepository;
+import com.backend.hotstore.HotEventStore;
+import com.backend.jfr.StatsQueryEvent;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -15,15 +20,50 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class StatsService {
 
-    private final EventRepository eventRepository;
+    private final EventStatsDao eventStatsDao;
+    private final EventShards eventShards;
+    private final HotEventStore hotEventStore;
+    private final ArchiveCatalog archiveCatalog;
 
+    /**
+     * Windows reaching below the archive horizon add the archived events, read together
+     * with the table so a concurrent archive pass is never seen half-done.
+     *
+     * The horizon is checked under the archive read lock, so no chunk can move between the
+     * decision and the query. A federated read goes to the primary: a replica that has not
+     * yet replayed an archived chunk's delete would count those events twice. A table-only
+     * window lies wholly above every archived event, so it can use a replica as before.
+     */
     public MachineStatsResponse machineStats(String machineId, Instant start, Instant end) {
         validateWindow(machineId, start, end, "machineId/start/end");
 
-        var agg = eventRepository.aggregateMachineStats(machineId, start, end);
+        StatsQueryEvent event = new StatsQueryEvent();
+        event.begin();
+        EventStatsDao.MachineStats agg = archiveCatalog.read(() -> archiveCatalog.overlaps(start)
+                ? sum(eventStatsDao.machineStats(machineId, start, end), archiveCatalog.machineStats(machineId, start, end))
+                : readOnly(() -> eventStatsDao.machineStats(machineId, start, end)));
+        // A machine lives on one shard, so this is one statement in both modes
+        event.complete("machine-stats", machineId, start, end, 1, 1);
+        return toResponse(machineId, start, end, agg);
+    }
+
+    /**
+     * Same as {@link #machineStats} from the hot store; no transaction, no connection.
+     */
+    public MachineStatsResponse hotMachineStats(String machineId, Instant start, Instant end) {
+        validateWindow(machineId, start, end, "machineId/start/end");
+
+        StatsQueryEvent event = new StatsQueryEvent();
+        event.begin();
+        EventStatsDao.MachineStats agg = hotEventStore.machineStats(machineId, start, end);
+        event.complete("machine-stats-hot", machineId, start, end, 0, 1);
+        return toResponse(machineId, start, end, agg);
+    }
 
-        long eventsCount = (agg == null) ? 0 : agg.getEventsCount();
-        long defectsCount = (agg == null) ? 0 : agg.getDefectsCount();
+    private static MachineStatsResponse toResponse(String machineId, Instant start, Instant end,
+                                                   EventStatsDao.MachineStats agg) {
+        long eventsCount = agg.eventsCount();
+        long defectsCount = agg.defectsCount();
 
         double hours = Duration.between(start, end).toSeconds() / 3600.0;
         double avgDefectRate = (hours <= 0.0) ? 0.0 : (defectsCount / hours);
@@ -39,20 +79,43 @@ public class StatsService {
                 .build();
     }
 
+    /**
+     * Routed like {@link #machineStats}: federated on the primary, table-only on a replica.
+     */
     public List<TopDefectLineDto> topDefectLines(String factoryId, Instant from, Instant to, int limit) {
         validateWindow(factoryId, from, to, "factoryId/from/to");
         int safeLimit = clampLimit(limit);
 
         // Primary ranking: totalDefects DESC (defectsPercent is only context)
-        var rows = eventRepository.findTopLinesByTotalDefects(factoryId, from, to, safeLimit);
+        StatsQueryEvent event = new StatsQueryEvent();
+        event.begin();
+        List<EventStatsDao.LineStats> rows = archiveCatalog.read(() -> archiveCatalog.overlaps(from)
+                ? EventStatsDao.top(List.of(eventStatsDao.lineStats(factoryId, from, to),
+                        archiveCatalog.lineStats(factoryId, from, to)), safeLimit)
+                : readOnly(() -> eventStatsDao.topDefectLines(factoryId, from, to, safeLimit)));
+        event.complete("top-defect-lines", factoryId, from, to, eventShards.size(), rows.size());
+        return toDtos(rows);
+    }
 
+    public List<TopDefectLineDto> hotTopDefectLines(String factoryId, Instant from, Instant to, int limit) {
+        validateWindow(factoryId, from, to, "factoryId/from/to");
+        int safeLimit = clampLimit(limit);
+
+        StatsQueryEvent event = new StatsQueryEvent();
+        event.begin();
+        List<EventStatsDao.LineStats> rows = hotEventStore.topDefectLines(factoryId, from, to, safeLimit);
+        event.complete("top-defect-lines-hot", factoryId, from, to, 0, rows.size());
+        return toDtos(rows);
+    }
+
+    private static List<TopDefectLineDto> toDtos(List<EventStatsDao.LineStats> rows) {
         return rows.stream().map(r -> {
-            long eventCount = r.getEventCount();
-            long totalDefects = r.getTotalDefects();
+            long eventCount = r.eventCount();
+            long totalDefects = r.totalDefects();
             double pct = (eventCount == 0) ? 0.0 : (totalDefects * 100.0 / eventCount);
 
             return TopDefectLineDto.builder()
-                    .lineId(r.getLineId())
+                    .lineId(r.lineId())
                     .eventCount(eventCount)
                     .totalDefects(totalDefects)
                     .defectsPercent(round(pct, 2))
@@ -60,6 +123,18 @@ public class StatsService {
         }).toList();
     }
 
+    /**
+     * Runs {@code query} in a read-only transaction on the main DataSource, which the
+     * replica routing sends to a replica. Outside it, statements run on the primary.
+     */
+    private <T> T readOnly(Supplier<T> query) {
+        return eventShards.get(0).readTx().execute(tx -> query.get());
+    }
+
+    private static EventStatsDao.MachineStats sum(EventStatsDao.MachineStats a, EventStatsDao.MachineStats b) {
+        return new EventStatsDao.MachineStats(a.eventsCount() + b.eventsCount(), a.defectsCount() + b.defectsCount());
+    }
+
     private static void validateWindow(String id, Instant start, Instant end, String label) {
         if (id == null || id.isBlank() || start == null || end == null || !start.isBefore(end)) {
             throw new IllegalArgumentException("Invalid " + label);
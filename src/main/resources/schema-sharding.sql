@@ -0,0 +1,7 @@
+-- Global event_id directory, applied to every shard when app.sharding.enabled=true.
+-- Each event_id has exactly one row, on the shard chosen by hashing the event_id;
+-- "shard" is where the event row itself lives (hash of its current machine_id).
+CREATE TABLE IF NOT EXISTS event_directory (
+    event_id VARCHAR(255) PRIMARY KEY,
+    shard INT NOT NULL
+    );
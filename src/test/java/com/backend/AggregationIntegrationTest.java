@@ -0,0 +1,193 @@
+package com.backend;
+
+import com.backend.config.AggregationProperties;
+import com.backend.dto.AggregationResponse;
+import com.backend.dto.AggregationRowDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.*;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+class AggregationIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    static final int EVENTS = 1200;
+    static final Instant BASE = Instant.parse("2026-01-15T00:00:00Z");
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired AggregationProperties limits;
+
+    long maxScanRows;
+    int maxGroups;
+
+    @BeforeEach
+    void setUp() {
+        maxScanRows = limits.getMaxScanRows();
+        maxGroups = limits.getMaxGroups();
+
+        jdbc.execute("TRUNCATE event");
+        // Machine g % 6 fixes factory g % 2 and line g % 3; one event every 30s over 10 hours
+        jdbc.update("""
+            INSERT INTO event (event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count)
+            SELECT 'E-' || g, 'F-' || (g % 2), 'L-' || (g % 3), 'M-' || (g % 6),
+                   TIMESTAMPTZ '2026-01-15 00:00:00+00' + g * INTERVAL '30 seconds',
+                   now(), (g % 5) * 100, CASE WHEN g % 7 = 0 THEN -1 ELSE g % 4 END
+            FROM generate_series(0, ?) AS g
+            """, EVENTS - 1);
+        jdbc.execute("ANALYZE event");
+    }
+
+    @AfterEach
+    void restoreLimits() {
+        limits.setMaxScanRows(maxScanRows);
+        limits.setMaxGroups(maxGroups);
+    }
+
+    private MockHttpServletRequestBuilder aggregate(String groupBy, String metrics) {
+        return get("/stats/aggregate")
+                .param("groupBy", groupBy)
+                .param("metrics", metrics)
+                .param("from", "2026-01-15T00:00:00Z")
+                .param("to", "2026-01-16T00:00:00Z");
+    }
+
+    private AggregationResponse read(MockHttpServletRequestBuilder req) throws Exception {
+        MvcResult res = mvc.perform(req).andExpect(status().isOk()).andReturn();
+        return om.readValue(res.getResponse().getContentAsString(), AggregationResponse.class);
+    }
+
+    @Test
+    void groupsByLineAndHour_matchesRowByRowComputation() throws Exception {
+        AggregationResponse resp = read(aggregate("line,time", "count,sum_defects,avg_defects,avg_duration")
+                .param("factoryId", "F-0")
+                .param("bucket", "hour"));
+
+        // Expected values from the same generator, in Java
+        Map<String, long[]> expected = new TreeMap<>();
+        for (int g = 0; g < EVENTS; g += 2) {
+            Instant hour = BASE.plusSeconds(g * 30L).truncatedTo(ChronoUnit.HOURS);
+            long[] acc = expected.computeIfAbsent("L-" + (g % 3) + "@" + hour, k -> new long[4]);
+            acc[0]++;
+            if (g % 7 != 0) {
+                acc[1] += g % 4;
+                acc[2]++;
+            }
+            acc[3] += (g % 5) * 100L;
+        }
+
+        assertThat(resp.isTruncated()).isFalse();
+        assertThat(resp.getRows()).hasSize(expected.size());
+        List<String> keys = new ArrayList<>();
+        for (AggregationRowDto row : resp.getRows()) {
+            String key = row.getLineId() + "@" + row.getBucket();
+            keys.add(key);
+            long[] acc = expected.get(key);
+            assertThat(acc).as(key).isNotNull();
+            assertThat(row.getFactoryId()).isNull();
+            assertThat(row.getEventCount()).isEqualTo(acc[0]);
+            assertThat(row.getTotalDefects()).isEqualTo(acc[1]);
+            assertThat(row.getAvgDefects()).isEqualTo(Math.round(acc[1] * 100.0 / acc[2]) / 100.0);
+            assertThat(row.getAvgDurationMs()).isEqualTo(Math.round(acc[3] * 100.0 / acc[0]) / 100.0);
+            assertThat(row.getTotalDurationMs()).isNull();
+        }
+        assertThat(keys).isSorted();
+    }
+
+    @Test
+    void noGroupBy_returnsOneTotalRow() throws Exception {
+        AggregationResponse resp = read(aggregate("", "count,sum_duration").param("machineId", "M-1"));
+
+        assertThat(resp.getRows()).hasSize(1);
+        assertThat(resp.getRows().get(0).getEventCount()).isEqualTo(EVENTS / 6);
+        assertThat(resp.getRows().get(0).getMachineId()).isNull();
+    }
+
+    @Test
+    void limit_cutsInKeyOrder_andFlagsTruncation() throws Exception {
+        AggregationResponse resp = read(aggregate("machine", "count").param("limit", "4"));
+
+        assertThat(resp.isTruncated()).isTrue();
+        assertThat(resp.getRows()).extracting(AggregationRowDto::getMachineId)
+                .containsExactly("M-0", "M-1", "M-2", "M-3");
+        assertThat(resp.getRows()).allSatisfy(r -> assertThat(r.getEventCount()).isEqualTo(EVENTS / 6));
+    }
+
+    @Test
+    void unknownNames_andDuplicates_areRejected() throws Exception {
+        mvc.perform(aggregate("line; DROP TABLE event", "count"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown groupBy: line; DROP TABLE event"));
+        mvc.perform(aggregate("line", "median"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(aggregate("line,line", "count"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(aggregate("time", "count").param("bucket", "fortnight"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void costGuard_rejectsOnPlannerEstimate_beforeRunning() throws Exception {
+        limits.setMaxScanRows(100);
+
+        // Whole window, no filter: a full scan of the table
+        mvc.perform(aggregate("line", "count"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(startsWith("Aggregation too expensive")));
+
+        // Machine + 10 minutes: idx_event_machine_time narrows it to a handful of rows
+        AggregationResponse narrow = read(get("/stats/aggregate")
+                .param("groupBy", "machine")
+                .param("machineId", "M-0")
+                .param("from", "2026-01-15T00:00:00Z")
+                .param("to", "2026-01-15T00:10:00Z"));
+        assertThat(narrow.getEstimatedScannedRows()).isLessThanOrEqualTo(100);
+        assertThat(narrow.getRows()).singleElement()
+                .satisfies(r -> assertThat(r.getEventCount()).isEqualTo(4));
+
+        limits.setMaxScanRows(maxScanRows);
+        limits.setMaxGroups(5);
+        mvc.perform(aggregate("machine", "count"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(containsString("groups")));
+    }
+}
@@ -0,0 +1,144 @@
+package com.backend;
+
+import com.backend.dto.EventPageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.*;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+class EventQueryIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void clean() {
+        jdbc.execute("TRUNCATE event");
+        // 60 events over 3 lines / 2 machines; every 3 share one event_time to exercise the id tie-break
+        jdbc.update("""
+            INSERT INTO event (event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count)
+            SELECT 'E-' || g, 'F-01', 'L-' || (g % 3), 'M-' || (g % 2),
+                   TIMESTAMPTZ '2026-01-15 00:00:00+00' + (g / 3) * INTERVAL '1 second',
+                   now(), 1000, 0
+            FROM generate_series(0, 59) AS g
+            """);
+    }
+
+    /**
+     * Follows nextCursor until the last page and returns every eventId in page order.
+     */
+    private List<String> readAll(String scopeParam, String scopeValue, int pageSize) throws Exception {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            // Fresh builder per page: MockMvc builders accumulate params
+            MockHttpServletRequestBuilder req = get("/events")
+                    .param(scopeParam, scopeValue)
+                    .param("from", "2026-01-15T00:00:00Z")
+                    .param("to", "2026-01-15T01:00:00Z")
+                    .param("limit", String.valueOf(pageSize));
+            if (cursor != null) req.param("cursor", cursor);
+
+            EventPageResponse page = om.readValue(mvc.perform(req)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), EventPageResponse.class);
+            page.getEvents().forEach(e -> ids.add(e.getEventId()));
+            cursor = page.getNextCursor();
+            assertThat(++pages).isLessThan(100);
+        } while (cursor != null);
+        return ids;
+    }
+
+    @Test
+    void machineScope_walksAllPages_inEventTimeOrder() throws Exception {
+        List<String> ids = readAll("machineId", "M-1", 3);
+
+        List<String> expected = new ArrayList<>();
+        for (int g = 1; g < 60; g += 2) expected.add("E-" + g);
+        assertThat(ids).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void factoryScope_mergesLines_withoutGapsOrDuplicates() throws Exception {
+        List<String> ids = readAll("factoryId", "F-01", 7);
+
+        assertThat(ids).hasSize(60).doesNotHaveDuplicates();
+        // event_time order: E-0..E-2 share second 0, E-3..E-5 second 1, ...
+        for (int i = 0; i < 60; i++) {
+            int g = Integer.parseInt(ids.get(i).substring(2));
+            assertThat(g / 3).isEqualTo(i / 3);
+        }
+    }
+
+    @Test
+    void cursorAtOrPastNarrowedTo_isEmptyLastPage() throws Exception {
+        EventPageResponse first = om.readValue(mvc.perform(get("/events")
+                        .param("machineId", "M-1")
+                        .param("from", "2026-01-15T00:00:00Z")
+                        .param("to", "2026-01-15T01:00:00Z")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), EventPageResponse.class);
+        // The last row of page one is E-19, at second 6
+        assertThat(first.getNextCursor()).isNotNull();
+
+        for (String to : List.of("2026-01-15T00:00:06Z", "2026-01-15T00:00:03Z")) {
+            EventPageResponse next = om.readValue(mvc.perform(get("/events")
+                            .param("machineId", "M-1")
+                            .param("from", "2026-01-15T00:00:00Z")
+                            .param("to", to)
+                            .param("cursor", first.getNextCursor()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), EventPageResponse.class);
+            assertThat(next.getEvents()).isEmpty();
+            assertThat(next.getNextCursor()).isNull();
+        }
+    }
+
+    @Test
+    void invalidCursor_isBadRequest() throws Exception {
+        mvc.perform(get("/events")
+                        .param("machineId", "M-1")
+                        .param("from", "2026-01-15T00:00:00Z")
+                        .param("to", "2026-01-15T01:00:00Z")
+                        .param("cursor", "not-a-cursor!"))
+                .andExpect(status().isBadRequest());
+    }
+}
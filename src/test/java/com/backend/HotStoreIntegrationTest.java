@@ -0,0 +1,224 @@
+package com.backend;
+
+import com.backend.dao.EventShards;
+import com.backend.dto.EventIngestRequest;
+import com.backend.hotstore.HotEventStore;
+import com.backend.testutil.MutableClock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.*;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * /stats?source=HOT against the database answer, with tiny segments (4 rows, 64 segments
+ * of budget) so eviction is reachable. Tests share the store, so each uses its own ids,
+ * and the eviction test, which moves the covered window, runs last.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+        "app.hot-store.enabled=true",
+        "app.hot-store.segment-rows=4",
+        "app.hot-store.max-memory=7168B"
+})
+@AutoConfigureMockMvc
+@Import(FactoryEventsApplicationTests.TestClockConfig.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class HotStoreIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    static final Instant NOW = Instant.parse("2026-01-15T00:00:00Z");
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired MutableClock clock;
+    @Autowired HotEventStore store;
+    @Autowired EventShards eventShards;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        clock.set(NOW);
+        // The startup preload runs in the background
+        for (int i = 0; i < 100 && store.coveredFrom() == null; i++) Thread.sleep(100);
+        assertThat(store.coveredFrom()).isNotNull();
+    }
+
+    private EventIngestRequest event(String eventId, String factoryId, String lineId, String machineId,
+                                     Instant eventTime, int defects) {
+        return EventIngestRequest.builder()
+                .eventId(eventId)
+                .factoryId(factoryId)
+                .lineId(lineId)
+                .machineId(machineId)
+                .eventTime(eventTime)
+                .durationMs(1000)
+                .defectCount(defects)
+                .build();
+    }
+
+    private void ingest(List<EventIngestRequest> batch) throws Exception {
+        mvc.perform(post("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(batch)))
+                .andExpect(status().isOk());
+    }
+
+    private String machineStats(String machineId, Instant start, String source) throws Exception {
+        return mvc.perform(get("/stats")
+                        .param("machineId", machineId)
+                        .param("start", start.toString())
+                        .param("end", NOW.toString())
+                        .param("source", source))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String topLines(String factoryId, Instant from, String source) throws Exception {
+        return mvc.perform(get("/stats/top-defect-lines")
+                        .param("factoryId", factoryId)
+                        .param("from", from.toString())
+                        .param("to", NOW.plusSeconds(60).toString())
+                        .param("source", source))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void hotStats_matchDatabase_afterInsertsAndUpdates() throws Exception {
+        Instant t = NOW.minus(Duration.ofHours(1));
+        ingest(List.of(
+                event("H1-1", "F-H1", "L-1", "M-H1", t, 3),
+                event("H1-2", "F-H1", "L-1", "M-H1", t.plusSeconds(60), -1),
+                event("H1-3", "F-H1", "L-2", "M-H1", t.plusSeconds(120), 5),
+                event("H1-4", "F-H1", "L-3", "M-H1b", t.plusSeconds(180), 1),
+                event("H1-5", "F-H1", "L-3", "M-H1b", NOW.minus(Duration.ofHours(8)), 9)));
+
+        // Newer versions: H1-1 moves to L-2 with more defects, H1-4 leaves the window
+        clock.plus(Duration.ofSeconds(5));
+        ingest(List.of(
+                event("H1-1", "F-H1", "L-2", "M-H1", t, 4),
+                event("H1-4", "F-H1", "L-3", "M-H1b", NOW.minus(Duration.ofHours(7)), 1)));
+
+        Instant from = NOW.minus(Duration.ofHours(2));
+        assertThat(machineStats("M-H1", from, "HOT")).isEqualTo(machineStats("M-H1", from, "DB"));
+        assertThat(machineStats("M-H1b", from, "HOT")).isEqualTo(machineStats("M-H1b", from, "DB"));
+        assertThat(topLines("F-H1", from, "HOT")).isEqualTo(topLines("F-H1", from, "DB"));
+
+        mvc.perform(get("/stats/top-defect-lines")
+                        .param("factoryId", "F-H1")
+                        .param("from", from.toString())
+                        .param("to", NOW.toString())
+                        .param("source", "HOT"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].lineId").value("L-2"))
+                .andExpect(jsonPath("$[0].eventCount").value(2))
+                .andExpect(jsonPath("$[0].totalDefects").value(9));
+    }
+
+    @Test
+    void windowBeforeCoverage_isRejected() throws Exception {
+        mvc.perform(get("/stats")
+                        .param("machineId", "M-H2")
+                        .param("start", NOW.minus(Duration.ofHours(7)).toString())
+                        .param("end", NOW.toString())
+                        .param("source", "HOT"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(org.hamcrest.Matchers.startsWith("Hot store covers event times from")));
+
+        // The database still answers it
+        mvc.perform(get("/stats")
+                        .param("machineId", "M-H2")
+                        .param("start", NOW.minus(Duration.ofHours(7)).toString())
+                        .param("end", NOW.toString()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void preload_readsRowsWrittenBehindTheStore() throws Exception {
+        Timestamp at = Timestamp.from(NOW.minus(Duration.ofMinutes(30)));
+        jdbc.update("""
+                INSERT INTO event (event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count)
+                VALUES ('H3-1', 'F-H3', 'L-1', 'M-H3', ?, ?, 1000, 2)
+                """, at, at);
+        store.preload(eventShards);
+
+        Instant from = NOW.minus(Duration.ofHours(1));
+        assertThat(machineStats("M-H3", from, "HOT")).isEqualTo(machineStats("M-H3", from, "DB"));
+        assertThat(machineStats("M-H3", from, "HOT")).contains("\"eventsCount\":1");
+    }
+
+    @Test
+    @Order(Integer.MAX_VALUE)
+    void memoryLimit_evictsOldestSegment_andMovesCoverage() throws Exception {
+        long evictedBefore = store.evictedSegments();
+        Instant t0 = NOW.minus(Duration.ofMinutes(50));
+
+        // 260 rows need 65 segments: the older segments and the first H4 rows are evicted
+        List<EventIngestRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 260; i++) {
+            batch.add(event("H4-" + i, "F-H4", "L-1", "M-H4", t0.plusSeconds(10L * i), 1));
+        }
+        ingest(batch);
+
+        assertThat(store.evictedSegments()).isGreaterThan(evictedBefore);
+        Instant covered = store.coveredFrom();
+        assertThat(covered).isAfter(t0).isBefore(t0.plus(Duration.ofMinutes(5)));
+
+        mvc.perform(get("/stats")
+                        .param("machineId", "M-H4")
+                        .param("start", t0.toString())
+                        .param("end", NOW.toString())
+                        .param("source", "HOT"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(machineStats("M-H4", covered, "HOT")).isEqualTo(machineStats("M-H4", covered, "DB"));
+
+        // At the budget, new segments reuse the buffers of evicted ones: no more direct memory
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct")).findFirst().orElseThrow();
+        long buffersBefore = direct.getCount();
+        batch.clear();
+        for (int i = 0; i < 260; i++) {
+            batch.add(event("H5-" + i, "F-H4", "L-1", "M-H5", NOW.minus(Duration.ofMinutes(5)).plusMillis(i), 1));
+        }
+        ingest(batch);
+        assertThat(direct.getCount() - buffersBefore).isLessThan(10);
+        assertThat(store.offHeapBytes()).isLessThanOrEqualTo(7168);
+    }
+}
@@ -0,0 +1,176 @@
+package com.backend;
+
+import com.backend.dto.EventIngestRequest;
+import com.backend.testutil.MutableClock;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.*;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Records real traffic through /actuator/jfr and reads the custom events back from the file.
+ */
+@Testcontainers
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,jfr")
+@AutoConfigureMockMvc
+@Import(FactoryEventsApplicationTests.TestClockConfig.class)
+class JfrIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired MutableClock clock;
+
+    @BeforeEach
+    void clean() {
+        jdbc.execute("TRUNCATE event");
+        clock.set(Instant.parse("2026-01-15T00:00:00Z"));
+    }
+
+    private EventIngestRequest event(String eventId, long durationMs) {
+        return EventIngestRequest.builder()
+                .eventId(eventId)
+                .factoryId("F-01")
+                .lineId("L-01")
+                .machineId("M-001")
+                .eventTime(Instant.parse("2026-01-14T23:00:00Z"))
+                .durationMs(durationMs)
+                .defectCount(2)
+                .build();
+    }
+
+    private JsonNode json(ResultActions result) throws Exception {
+        return om.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    void recording_containsIngestJdbcAndStatsEvents() throws Exception {
+        JsonNode started = json(mvc.perform(post("/actuator/jfr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"duration\":\"1m\"}"))
+                .andExpect(status().isOk()));
+        assertThat(started.get("state").asText()).isEqualTo("RUNNING");
+
+        // Only one recording at a time
+        mvc.perform(post("/actuator/jfr").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isConflict());
+
+        // 2 new + 1 invalid, then the same batch again: 2 deduped -> conflicted rows go to the update batch
+        List<EventIngestRequest> batch = List.of(event("E-1", 1000), event("E-2", 1000), event("E-3", -5));
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/events/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(om.writeValueAsString(batch)))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(get("/stats")
+                        .param("machineId", "M-001")
+                        .param("start", "2026-01-14T00:00:00Z")
+                        .param("end", "2026-01-15T00:00:00Z"))
+                .andExpect(status().isOk());
+
+        JsonNode stopped = json(mvc.perform(delete("/actuator/jfr")).andExpect(status().isOk()));
+        assertThat(stopped.get("state").asText()).isEqualTo("STOPPED");
+        String file = stopped.get("file").asText();
+
+        byte[] bytes = mvc.perform(get("/actuator/jfr/" + file))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        Path copy = Files.createTempFile("jfr-test", ".jfr");
+        try {
+            Files.write(copy, bytes);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(copy);
+
+            List<RecordedEvent> ingest = byName(events, "com.backend.IngestBatch");
+            assertThat(ingest).hasSize(2);
+            RecordedEvent first = ingest.get(0);
+            assertThat(first.getInt("batchSize")).isEqualTo(3);
+            assertThat(first.getLong("accepted")).isEqualTo(2);
+            assertThat(first.getLong("rejected")).isEqualTo(1);
+            assertThat(first.getInt("insertStatements")).isEqualTo(2);
+            assertThat(first.getBoolean("committed")).isTrue();
+            RecordedEvent second = ingest.get(1);
+            assertThat(second.getLong("deduped")).isEqualTo(2);
+            assertThat(second.getInt("updateStatements")).isEqualTo(2);
+
+            List<RecordedEvent> jdbcBatches = byName(events, "com.backend.JdbcBatch");
+            assertThat(jdbcBatches).extracting(e -> e.getString("operation"))
+                    .containsExactly("insert", "insert", "conditional-update");
+            assertThat(jdbcBatches.get(0).getLong("affectedRows")).isEqualTo(2);
+
+            List<RecordedEvent> stats = byName(events, "com.backend.StatsQuery");
+            assertThat(stats).hasSize(1);
+            assertThat(stats.get(0).getString("query")).isEqualTo("machine-stats");
+            assertThat(stats.get(0).getString("key")).isEqualTo("M-001");
+
+            // Environment, system properties and command lines can hold credentials
+            assertThat(events).extracting(e -> e.getEventType().getName())
+                    .doesNotContain("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty",
+                            "jdk.JVMInformation", "jdk.SystemProcess")
+                    .contains("jdk.GarbageCollection");
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+
+        mvc.perform(get("/actuator/jfr/other.jfr")).andExpect(status().isNotFound());
+        mvc.perform(delete("/actuator/jfr")).andExpect(status().isConflict());
+    }
+
+    @Test
+    void start_rejectsUnboundedOrUnknownSettings() throws Exception {
+        mvc.perform(post("/actuator/jfr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"duration\":\"2h\"}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/actuator/jfr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"settings\":\"everything\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    private static List<RecordedEvent> byName(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .toList();
+    }
+}
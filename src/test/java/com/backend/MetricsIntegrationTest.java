@@ -0,0 +1,134 @@
+package com.backend;
+
+import com.backend.dto.EventIngestRequest;
+import com.backend.testutil.MutableClock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.*;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Scrapes /actuator/prometheus after real traffic. Metrics export is off in tests by
+ * default, hence @AutoConfigureObservability.
+ */
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Import(FactoryEventsApplicationTests.TestClockConfig.class)
+class MetricsIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired MutableClock clock;
+
+    @BeforeEach
+    void clean() {
+        jdbc.execute("TRUNCATE event");
+        clock.set(Instant.parse("2026-01-15T00:00:00Z"));
+    }
+
+    private EventIngestRequest event(String eventId, long durationMs) {
+        return EventIngestRequest.builder()
+                .eventId(eventId)
+                .factoryId("F-01")
+                .lineId("L-01")
+                .machineId("M-001")
+                .eventTime(Instant.parse("2026-01-14T23:00:00Z"))
+                .durationMs(durationMs)
+                .defectCount(1)
+                .build();
+    }
+
+    private String scrape() throws Exception {
+        return mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private static double sample(String scrape, String series) {
+        return scrape.lines()
+                .filter(l -> l.startsWith(series + " "))
+                .mapToDouble(l -> Double.parseDouble(l.substring(series.length() + 1)))
+                .findFirst()
+                .orElse(0.0);
+    }
+
+    @Test
+    void ingestAndStats_areExposedOnPrometheusEndpoint() throws Exception {
+        String before = scrape();
+
+        List<EventIngestRequest> batch = List.of(event("E-1", 1000), event("E-2", 1000), event("E-3", -5));
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/events/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(om.writeValueAsString(batch)))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(get("/stats")
+                        .param("machineId", "M-001")
+                        .param("start", "2026-01-14T00:00:00Z")
+                        .param("end", "2026-01-15T00:00:00Z"))
+                .andExpect(status().isOk());
+
+        String after = scrape();
+
+        // Outcome counters: 2 accepted + 2 deduped + 2 rejected over the two requests
+        String accepted = "ingest_events_total{outcome=\"accepted\",reason=\"none\"}";
+        String deduped = "ingest_events_total{outcome=\"deduped\",reason=\"none\"}";
+        String rejected = "ingest_events_total{outcome=\"rejected\",reason=\"INVALID_DURATION\"}";
+        assertThat(sample(after, accepted) - sample(before, accepted)).isEqualTo(2.0);
+        assertThat(sample(after, deduped) - sample(before, deduped)).isEqualTo(2.0);
+        assertThat(sample(after, rejected) - sample(before, rejected)).isEqualTo(2.0);
+
+        String sizeCount = "ingest_batch_size_events_count";
+        assertThat(sample(after, sizeCount) - sample(before, sizeCount)).isEqualTo(2.0);
+
+        // One timer per stage, with histogram buckets
+        for (String stage : List.of("bind", "validate", "insert", "update", "commit")) {
+            assertThat(after).contains("ingest_stage_seconds_bucket{stage=\"" + stage + "\"");
+        }
+        assertThat(after)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/events/batch\"")
+                .contains("event_stats_query_seconds_bucket{")
+                .contains("query=\"machineStats\"")
+                .contains("hikaricp_connections_acquire_seconds_bucket{");
+    }
+}
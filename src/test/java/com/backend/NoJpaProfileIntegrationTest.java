@@ -0,0 +1,116 @@
+package com.backend;
+
+import com.backend.dto.EventIngestRequest;
+import com.backend.testutil.MutableClock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The application with the no-jpa profile: Hibernate is never bootstrapped and the
+ * ingest and stats endpoints work on plain JDBC.
+ */
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("no-jpa")
+@Import(FactoryEventsApplicationTests.TestClockConfig.class)
+class NoJpaProfileIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired MutableClock clock;
+    @Autowired ApplicationContext context;
+
+    @BeforeEach
+    void clean() {
+        jdbc.execute("TRUNCATE event");
+        clock.set(Instant.parse("2026-01-15T00:00:00Z"));
+    }
+
+    private EventIngestRequest event(String eventId, String lineId, int defects) {
+        return EventIngestRequest.builder()
+                .eventId(eventId)
+                .factoryId("F-01")
+                .lineId(lineId)
+                .machineId("M-001")
+                .eventTime(Instant.parse("2026-01-14T23:00:00Z"))
+                .durationMs(1000)
+                .defectCount(defects)
+                .build();
+    }
+
+    @Test
+    void noHibernate_andStatsStillWork() throws Exception {
+        assertThat(context.getBeanNamesForType(EntityManagerFactory.class)).isEmpty();
+        assertThat(context.getBean(PlatformTransactionManager.class)).isInstanceOf(JdbcTransactionManager.class);
+
+        List<EventIngestRequest> batch = List.of(
+                event("E-1", "L-01", 3), event("E-2", "L-01", -1), event("E-3", "L-02", 5));
+        mvc.perform(post("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(3));
+
+        mvc.perform(get("/stats")
+                        .param("machineId", "M-001")
+                        .param("start", "2026-01-14T00:00:00Z")
+                        .param("end", "2026-01-15T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventsCount").value(3))
+                .andExpect(jsonPath("$.defectsCount").value(8));
+
+        mvc.perform(get("/stats/top-defect-lines")
+                        .param("factoryId", "F-01")
+                        .param("from", "2026-01-14T00:00:00Z")
+                        .param("to", "2026-01-15T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lineId").value("L-02"))
+                .andExpect(jsonPath("$[0].totalDefects").value(5))
+                .andExpect(jsonPath("$[1].lineId").value("L-01"))
+                .andExpect(jsonPath("$[1].eventCount").value(2))
+                .andExpect(jsonPath("$[1].totalDefects").value(3));
+    }
+}
@@ -0,0 +1,275 @@
+package com.backend;
+
+import com.backend.dto.EventIngestRequest;
+import com.backend.testutil.MutableClock;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.backend.archive.EventArchiver;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.*;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Primary + one streaming replica (pg_basebackup), routed by the transaction read-only flag.
+ */
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(FactoryEventsApplicationTests.TestClockConfig.class)
+class ReadReplicaRoutingIntegrationTest {
+
+    static final Network network = Network.newNetwork();
+
+    static final PostgreSQLContainer<?> primary =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withNetwork(network)
+                    .withNetworkAliases("primary")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres")
+                    .withCopyFileToContainer(
+                            MountableFile.forClasspathResource("replication/allow-replication.sh", 0755),
+                            "/docker-entrypoint-initdb.d/allow-replication.sh");
+
+    static final GenericContainer<?> replica =
+            new GenericContainer<>("postgres:16-alpine")
+                    .withNetwork(network)
+                    .withExposedPorts(5432)
+                    .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"))
+                    .withCommand("sh", "-c", """
+                        until pg_basebackup -d 'host=primary user=postgres password=postgres' \
+                              -D /tmp/replica -R -X stream; do rm -rf /tmp/replica; sleep 1; done
+                        chmod 0700 /tmp/replica
+                        exec postgres -D /tmp/replica
+                        """)
+                    .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1));
+
+    static {
+        primary.start();
+        replica.start();
+    }
+
+    static String replicaUrl() {
+        return "jdbc:postgresql://" + replica.getHost() + ":" + replica.getMappedPort(5432) + "/factory_events";
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", primary::getJdbcUrl);
+        r.add("spring.datasource.username", primary::getUsername);
+        r.add("spring.datasource.password", primary::getPassword);
+        r.add("app.datasource.read.enabled", () -> "true");
+        r.add("app.datasource.read.replicas[0].url", ReadReplicaRoutingIntegrationTest::replicaUrl);
+        r.add("app.datasource.read.replicas[0].username", () -> "postgres");
+        r.add("app.datasource.read.replicas[0].password", () -> "postgres");
+        r.add("app.datasource.read.max-lag", () -> "1s");
+        r.add("app.datasource.read.lag-check-interval", () -> "200ms");
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired PlatformTransactionManager txManager;
+    @Autowired MutableClock clock;
+
+    private boolean inRecovery(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        tx.setReadOnly(readOnly);
+        return Boolean.TRUE.equals(tx.execute(s -> jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class)));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(100);
+        }
+    }
+
+    @BeforeEach
+    void clean() throws Exception {
+        jdbc.execute("TRUNCATE event");
+        clock.set(Instant.parse("2026-01-15T00:00:00Z"));
+        await(() -> inRecovery(true));
+    }
+
+    @Test
+    void readOnlyTransactions_useReplica_othersUsePrimary() {
+        assertThat(inRecovery(true)).isTrue();
+        assertThat(inRecovery(false)).isFalse();
+        // No transaction at all (e.g. schema init) stays on the primary too
+        assertThat(jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class)).isFalse();
+    }
+
+    @Test
+    void stats_areServedFromReplica_onceReplicated() throws Exception {
+        var e = EventIngestRequest.builder()
+                .eventId("E-1").factoryId("F-01").lineId("L-01").machineId("M-001")
+                .eventTime(Instant.parse("2026-01-15T00:00:10Z"))
+                .durationMs(1000).defectCount(3)
+                .build();
+        mvc.perform(post("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(List.of(e))))
+                .andExpect(status().isOk());
+
+        await(() -> {
+            try {
+                MvcResult res = mvc.perform(get("/stats")
+                                .param("machineId", "M-001")
+                                .param("start", "2026-01-15T00:00:00Z")
+                                .param("end", "2026-01-15T01:00:00Z"))
+                        .andExpect(status().isOk())
+                        .andReturn();
+                Map<String, Object> body = om.readValue(res.getResponse().getContentAsString(), new TypeReference<>() {});
+                return ((Number) body.get("defectsCount")).longValue() == 3;
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    @Test
+    void laggingReplica_fallsBackToPrimary_andRecovers() throws Exception {
+        try (Connection direct = DriverManager.getConnection(replicaUrl(), "postgres", "postgres")) {
+            direct.createStatement().execute("SELECT pg_wal_replay_pause()");
+            try {
+                // Let the last replayed transaction age past max-lag, then make the replica fall behind
+                Thread.sleep(1_500);
+                jdbc.update("""
+                    INSERT INTO event (event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count)
+                    VALUES ('LAG-1', 'F-01', 'L-01', 'M-001', now(), now(), 1, 0)
+                    """);
+
+                await(() -> !inRecovery(true));
+            } finally {
+                direct.createStatement().execute("SELECT pg_wal_replay_resume()");
+            }
+        }
+
+        await(() -> inRecovery(true));
+    }
+
+    @Test
+    void replicaWithoutUpstream_fallsBackToPrimary_andRecovers() throws Exception {
+        try (Connection direct = DriverManager.getConnection(replicaUrl(), "postgres", "postgres")) {
+            String conninfo;
+            try (var rs = direct.createStatement().executeQuery("SHOW primary_conninfo")) {
+                rs.next();
+                conninfo = rs.getString(1);
+            }
+            // Stops the WAL receiver: nothing new arrives, so received and replayed stay equal
+            direct.createStatement().execute("ALTER SYSTEM SET primary_conninfo = ''");
+            direct.createStatement().execute("SELECT pg_reload_conf()");
+            try {
+                await(() -> !inRecovery(true));
+            } finally {
+                direct.createStatement().execute("ALTER SYSTEM SET primary_conninfo = '" + conninfo.replace("'", "''") + "'");
+                direct.createStatement().execute("SELECT pg_reload_conf()");
+            }
+        }
+
+        await(() -> inRecovery(true));
+    }
+
+    /**
+     * A window reaching into the archive must not be answered by a replica that still has
+     * the rows an archive pass just deleted. max-lag is raised so the paused replica stays
+     * in rotation and only the routing keeps the count right.
+     *
+     * Its own application context, so every bean used here is injected in this class.
+     */
+    @Nested
+    @TestPropertySource(properties = {
+            "app.archive.enabled=true",
+            "app.archive.min-age=30d",
+            "app.archive.interval=0s"
+    })
+    class WithArchive {
+
+        @DynamicPropertySource
+        static void archive(DynamicPropertyRegistry r) throws IOException {
+            String dir = Files.createTempDirectory("replica-archive-test").toString();
+            r.add("app.archive.directory", () -> dir);
+            // Dynamic, to win over the enclosing class's 1s
+            r.add("app.datasource.read.max-lag", () -> "1h");
+        }
+
+        @Autowired MockMvc archiveMvc;
+        @Autowired JdbcTemplate archiveJdbc;
+        @Autowired PlatformTransactionManager archiveTxManager;
+        @Autowired MutableClock archiveClock;
+        @Autowired EventArchiver archiver;
+
+        private long replicaRows() {
+            TransactionTemplate tx = new TransactionTemplate(archiveTxManager);
+            tx.setReadOnly(true);
+            Long n = tx.execute(s -> archiveJdbc.queryForObject("SELECT count(*) FROM event", Long.class));
+            return n == null ? 0 : n;
+        }
+
+        @Test
+        void federatedStats_ignoreReplicaStillHoldingArchivedRows() throws Exception {
+            archiveClock.set(Instant.parse("2026-01-15T00:00:00Z"));
+            var e = EventIngestRequest.builder()
+                    .eventId("OLD-1").factoryId("F-01").lineId("L-01").machineId("M-001")
+                    .eventTime(Instant.parse("2025-12-01T00:00:00Z"))
+                    .durationMs(1000).defectCount(2)
+                    .build();
+            archiveMvc.perform(post("/events/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(om.writeValueAsString(List.of(e))))
+                    .andExpect(status().isOk());
+            await(() -> replicaRows() == 1);
+
+            try (Connection direct = DriverManager.getConnection(replicaUrl(), "postgres", "postgres")) {
+                direct.createStatement().execute("SELECT pg_wal_replay_pause()");
+                try {
+                    assertThat(archiver.archive()).isEqualTo(1);
+                    assertThat(replicaRows()).as("replica has not replayed the archive pass").isEqualTo(1);
+
+                    MvcResult res = archiveMvc.perform(get("/stats")
+                                    .param("machineId", "M-001")
+                                    .param("start", "2025-11-01T00:00:00Z")
+                                    .param("end", "2026-01-15T00:00:00Z"))
+                            .andExpect(status().isOk())
+                            .andReturn();
+                    Map<String, Object> body = om.readValue(res.getResponse().getContentAsString(), new TypeReference<>() {});
+                    assertThat(((Number) body.get("eventsCount")).longValue()).isEqualTo(1);
+                    assertThat(((Number) body.get("defectsCount")).longValue()).isEqualTo(2);
+                } finally {
+                    direct.createStatement().execute("SELECT pg_wal_replay_resume()");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.backend;
+
+import com.backend.dao.EventShards;
+import com.backend.dto.AggregationResponse;
+import com.backend.dto.AggregationRowDto;
+import com.backend.dto.BatchIngestResponse;
+import com.backend.dto.EventIngestRequest;
+import com.backend.dto.EventPageResponse;
+import com.backend.testutil.MutableClock;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.*;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Three PostgreSQL nodes: spring.datasource is shard 0, two more from app.sharding.shards.
+ * Pools are small, with a short connection timeout, so a request holding more than one
+ * connection per pool shows up as timeouts rather than a slow test.
+ */
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(FactoryEventsApplicationTests.TestClockConfig.class)
+class ShardedEventStoreIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres = node();
+    static final PostgreSQLContainer<?> shard1 = node();
+    static final PostgreSQLContainer<?> shard2 = node();
+
+    static PostgreSQLContainer<?> node() {
+        return new PostgreSQLContainer<>("postgres:16-alpine")
+                .withDatabaseName("factory_events")
+                .withUsername("postgres")
+                .withPassword("postgres");
+    }
+
+    static {
+        postgres.start();
+        shard1.start();
+        shard2.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+        r.add("app.sharding.enabled", () -> "true");
+        r.add("app.sharding.shards[0].url", shard1::getJdbcUrl);
+        r.add("app.sharding.shards[0].username", () -> "postgres");
+        r.add("app.sharding.shards[0].password", () -> "postgres");
+        r.add("app.sharding.shards[1].url", shard2::getJdbcUrl);
+        r.add("app.sharding.shards[1].username", () -> "postgres");
+        r.add("app.sharding.shards[1].password", () -> "postgres");
+        r.add("spring.datasource.hikari.maximum-pool-size", () -> "4");
+        r.add("spring.datasource.hikari.connection-timeout", () -> "3000");
+        r.add("app.sharding.maximum-pool-size", () -> "4");
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired EventShards shards;
+    @Autowired MutableClock clock;
+
+    @BeforeEach
+    void clean() {
+        for (var s : shards.all()) {
+            s.jdbc().execute("TRUNCATE event, event_directory");
+        }
+        clock.set(Instant.parse("2026-01-15T00:00:00Z"));
+    }
+
+    /**
+     * First machine id "M-<n>" that hashes to {@code shard}, skipping {@code taken}.
+     */
+    private String machineOn(int shard, String... taken) {
+        Set<String> skip = Set.of(taken);
+        for (int n = 0; ; n++) {
+            String m = "M-" + n;
+            if (!skip.contains(m) && shards.shardForMachine(m) == shard) return m;
+        }
+    }
+
+    /**
+     * The {@code count} first event ids "<prefix><n>" whose directory row lives on {@code shard}.
+     */
+    private List<String> eventIdsOn(int shard, String prefix, int count) {
+        List<String> out = new ArrayList<>();
+        for (int n = 0; out.size() < count; n++) {
+            if (shards.shardForEvent(prefix + n) == shard) out.add(prefix + n);
+        }
+        return out;
+    }
+
+    private EventIngestRequest event(String eventId, String machineId, String lineId, int defects) {
+        return EventIngestRequest.builder()
+                .eventId(eventId)
+                .factoryId("F-01")
+                .lineId(lineId)
+                .machineId(machineId)
+                .eventTime(Instant.parse("2026-01-15T00:00:10Z"))
+                .durationMs(1000)
+                .defectCount(defects)
+                .build();
+    }
+
+    private BatchIngestResponse postBatch(List<EventIngestRequest> req) throws Exception {
+        return om.readValue(mvc.perform(post("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), BatchIngestResponse.class);
+    }
+
+    private long rowsOn(int shard, String eventId) {
+        return shards.get(shard).jdbc().queryForObject(
+                "SELECT COUNT(*) FROM event WHERE event_id = ?", Long.class, eventId);
+    }
+
+    private long totalRows() {
+        long n = 0;
+        for (var s : shards.all()) n += s.jdbc().queryForObject("SELECT COUNT(*) FROM event", Long.class);
+        return n;
+    }
+
+    private Map<String, Object> machineStats(String machineId) throws Exception {
+        MvcResult res = mvc.perform(get("/stats")
+                        .param("machineId", machineId)
+                        .param("start", "2026-01-15T00:00:00Z")
+                        .param("end", "2026-01-15T01:00:00Z"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return om.readValue(res.getResponse().getContentAsString(), new TypeReference<>() {});
+    }
+
+    @Test
+    void events_landOnMachineShard_andDedupIsGlobal() throws Exception {
+        List<EventIngestRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 60; i++) batch.add(event("E-" + i, "M-" + (i % 12), "L-01", 1));
+
+        BatchIngestResponse r1 = postBatch(batch);
+        BatchIngestResponse r2 = postBatch(batch);
+
+        assertThat(r1.getAccepted()).isEqualTo(60);
+        assertThat(r2.getDeduped()).isEqualTo(60);
+        assertThat(totalRows()).isEqualTo(60);
+        for (var e : batch) {
+            assertThat(rowsOn(shards.shardForMachine(e.getMachineId()), e.getEventId())).isEqualTo(1);
+        }
+        for (var s : shards.all()) {
+            assertThat(s.jdbc().queryForObject("SELECT COUNT(*) FROM event", Long.class)).isPositive();
+        }
+    }
+
+    @Test
+    void update_movingMachineAcrossShards_movesTheRow() throws Exception {
+        String m0 = machineOn(0);
+        String m1 = machineOn(1);
+
+        postBatch(List.of(event("E-1", m0, "L-01", 1)));
+
+        clock.plus(Duration.ofMinutes(1));
+        BatchIngestResponse moved = postBatch(List.of(event("E-1", m1, "L-01", 4)));
+        assertThat(moved.getUpdated()).isEqualTo(1);
+
+        assertThat(rowsOn(0, "E-1")).isZero();
+        assertThat(rowsOn(1, "E-1")).isEqualTo(1);
+        assertThat(((Number) machineStats(m0).get("eventsCount")).longValue()).isZero();
+        assertThat(((Number) machineStats(m1).get("defectsCount")).longValue()).isEqualTo(4);
+
+        // An older version arriving later must not move it back
+        clock.set(Instant.parse("2026-01-15T00:00:30Z"));
+        BatchIngestResponse stale = postBatch(List.of(event("E-1", m0, "L-01", 9)));
+        assertThat(stale.getUpdated()).isZero();
+        assertThat(rowsOn(1, "E-1")).isEqualTo(1);
+        assertThat(totalRows()).isEqualTo(1);
+    }
+
+    @Test
+    void topDefectLines_mergesPartialsFromAllShards() throws Exception {
+        String m0 = machineOn(0);
+        String m1 = machineOn(1);
+        String m2 = machineOn(2);
+
+        // L-A: 3 events, 30 defects across three shards; L-B: 6 events, 30 defects; L-C: 1 event, 5 defects
+        postBatch(List.of(
+                event("A-0", m0, "L-A", 10), event("A-1", m1, "L-A", 10), event("A-2", m2, "L-A", 10),
+                event("B-0", m0, "L-B", 5), event("B-1", m1, "L-B", 5), event("B-2", m2, "L-B", 5),
+                event("B-3", m0, "L-B", 5), event("B-4", m1, "L-B", 5), event("B-5", m2, "L-B", 5),
+                event("C-0", m2, "L-C", 5)));
+
+        MvcResult res = mvc.perform(get("/stats/top-defect-lines")
+                        .param("factoryId", "F-01")
+                        .param("from", "2026-01-15T00:00:00Z")
+                        .param("to", "2026-01-15T01:00:00Z")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<Map<String, Object>> body = om.readValue(res.getResponse().getContentAsString(), new TypeReference<>() {});
+
+        // Tie on totalDefects -> eventCount DESC decides, as on a single node
+        assertThat(body).hasSize(2);
+        assertThat(body.get(0).get("lineId")).isEqualTo("L-B");
+        assertThat(((Number) body.get(0).get("eventCount")).longValue()).isEqualTo(6);
+        assertThat(body.get(1).get("lineId")).isEqualTo("L-A");
+        assertThat(((Number) body.get(1).get("totalDefects")).longValue()).isEqualTo(30);
+    }
+
+    @Test
+    void aggregate_mergesGroupsFromAllShards() throws Exception {
+        String m0 = machineOn(0);
+        String m1 = machineOn(1);
+        String m2 = machineOn(2);
+        postBatch(List.of(
+                event("A-0", m0, "L-A", 1), event("A-1", m1, "L-A", 2), event("A-2", m2, "L-A", -1),
+                event("B-0", m1, "L-B", 3), event("B-1", m2, "L-B", 4)));
+
+        AggregationResponse resp = om.readValue(mvc.perform(get("/stats/aggregate")
+                        .param("groupBy", "line")
+                        .param("metrics", "count,sum_defects,avg_defects")
+                        .param("factoryId", "F-01")
+                        .param("from", "2026-01-15T00:00:00Z")
+                        .param("to", "2026-01-15T01:00:00Z"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), AggregationResponse.class);
+
+        assertThat(resp.getRows()).extracting(AggregationRowDto::getLineId).containsExactly("L-A", "L-B");
+        AggregationRowDto a = resp.getRows().get(0);
+        assertThat(a.getEventCount()).isEqualTo(3);
+        assertThat(a.getTotalDefects()).isEqualTo(3);
+        assertThat(a.getAvgDefects()).isEqualTo(1.5);
+        assertThat(resp.getRows().get(1).getTotalDefects()).isEqualTo(7);
+    }
+
+    @Test
+    void factoryQuery_pagesAcrossShards_withoutGapsOrDuplicates() throws Exception {
+        List<EventIngestRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 45; i++) batch.add(event("E-" + i, "M-" + (i % 9), "L-0" + (i % 3), 0));
+        postBatch(batch);
+
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            var req = get("/events")
+                    .param("factoryId", "F-01")
+                    .param("from", "2026-01-15T00:00:00Z")
+                    .param("to", "2026-01-15T01:00:00Z")
+                    .param("limit", "4");
+            if (cursor != null) req.param("cursor", cursor);
+            EventPageResponse page = om.readValue(mvc.perform(req)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), EventPageResponse.class);
+            page.getEvents().forEach(e -> assertThat(seen.add(e.getEventId())).isTrue());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(45);
+    }
+
+    @Test
+    void concurrentIngestOfSameEvent_keepsOneRowGlobally() throws Exception {
+        String payload = om.writeValueAsString(List.of(event("E-1", "M-1", "L-01", 0)));
+
+        int threads = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> {
+                startGate.await();
+                return mvc.perform(post("/events/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(payload))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+            }));
+        }
+        startGate.countDown();
+
+        long accepted = 0;
+        for (Future<String> f : futures) {
+            accepted += om.readValue(f.get(10, TimeUnit.SECONDS), BatchIngestResponse.class).getAccepted();
+        }
+        pool.shutdownNow();
+
+        assertThat(accepted).isEqualTo(1);
+        assertThat(totalRows()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentBatches_onOneShard_neverWaitForASecondConnection() throws Exception {
+        // Directory and data rows on the same shard, for every shard, with more requests than connections
+        int requests = 12;
+        List<String> payloads = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            int shard = i % shards.size();
+            String machine = machineOn(shard);
+            List<EventIngestRequest> batch = new ArrayList<>();
+            for (String id : eventIdsOn(shard, "S" + i + "-", 20)) batch.add(event(id, machine, "L-01", 1));
+            payloads.add(om.writeValueAsString(batch));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(requests);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int round = 0; round < 2; round++) {
+            for (String payload : payloads) {
+                futures.add(pool.submit(() -> {
+                    startGate.await();
+                    return mvc.perform(post("/events/batch")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(payload))
+                            .andExpect(status().isOk())
+                            .andReturn().getResponse().getContentAsString();
+                }));
+            }
+        }
+        startGate.countDown();
+
+        long accepted = 0, deduped = 0;
+        for (Future<String> f : futures) {
+            BatchIngestResponse r = om.readValue(f.get(30, TimeUnit.SECONDS), BatchIngestResponse.class);
+            accepted += r.getAccepted();
+            deduped += r.getDeduped();
+        }
+        pool.shutdownNow();
+
+        assertThat(accepted).isEqualTo(requests * 20);
+        assertThat(deduped).isEqualTo(requests * 20);
+        assertThat(totalRows()).isEqualTo(requests * 20);
+    }
+
+    @Test
+    void claimWithoutRow_isRepairedByTheNextWrite() throws Exception {
+        String m0 = machineOn(0);
+        String id = eventIdsOn(1, "R-", 1).get(0);
+        postBatch(List.of(event(id, m0, "L-01", 1)));
+
+        // What a batch leaves behind when the directory shard committed and the data shard did not
+        shards.get(0).jdbc().update("DELETE FROM event WHERE event_id = ?", id);
+
+        clock.plus(Duration.ofMinutes(1));
+        BatchIngestResponse retry = postBatch(List.of(event(id, m0, "L-01", 1)));
+        assertThat(retry.getUpdated()).isEqualTo(1);
+        assertThat(rowsOn(0, id)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,154 @@
+package com.backend;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Virtual-thread mode over real HTTP, with room for a single request so the limit is
+ * easy to saturate.
+ */
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "app.concurrency-limit.max-concurrent=1",
+        "app.concurrency-limit.max-wait=200ms",
+        "app.virtual-threads.pinned-threshold=10ms"
+})
+@Import({FactoryEventsApplicationTests.TestClockConfig.class, VirtualThreadsIntegrationTest.Probe.class})
+class VirtualThreadsIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    static final CountDownLatch RELEASE = new CountDownLatch(1);
+    static final CountDownLatch ENTERED = new CountDownLatch(1);
+
+    /**
+     * Endpoints under /stats, so the concurrency limit applies to them.
+     */
+    @TestConfiguration
+    @RestController
+    static class Probe {
+
+        @GetMapping("/stats/probe/virtual")
+        boolean virtual() {
+            return Thread.currentThread().isVirtual();
+        }
+
+        @GetMapping("/stats/probe/block")
+        String block() throws InterruptedException {
+            ENTERED.countDown();
+            RELEASE.await(10, TimeUnit.SECONDS);
+            return "released";
+        }
+    }
+
+    @LocalServerPort int port;
+    @Autowired MeterRegistry meterRegistry;
+
+    final HttpClient http = HttpClient.newHttpClient();
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void requests_runOnVirtualThreads() throws Exception {
+        HttpResponse<String> resp = get("/stats/probe/virtual");
+        assertThat(resp.statusCode()).isEqualTo(200);
+        assertThat(resp.body()).isEqualTo("true");
+    }
+
+    @Test
+    void requestsBeyondTheLimit_get503_actuatorIsNotLimited() throws Exception {
+        CompletableFuture<HttpResponse<String>> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return get("/stats/probe/block");
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+        try {
+            assertThat(ENTERED.await(10, TimeUnit.SECONDS)).isTrue();
+
+            HttpResponse<String> rejected = get("/stats?machineId=M-1&start=2026-01-14T00:00:00Z&end=2026-01-15T00:00:00Z");
+            assertThat(rejected.statusCode()).isEqualTo(503);
+            assertThat(rejected.headers().firstValue("Retry-After")).hasValue("1");
+            assertThat(rejected.body()).isEqualTo("{\"error\":\"TOO_MANY_CONCURRENT_REQUESTS\"}");
+            assertThat(meterRegistry.get("http.concurrency.rejected").functionCounter().count()).isGreaterThanOrEqualTo(1);
+
+            assertThat(get("/actuator/health").statusCode()).isEqualTo(200);
+        } finally {
+            RELEASE.countDown();
+        }
+        assertThat(blocked.get(10, TimeUnit.SECONDS).body()).isEqualTo("released");
+
+        // The slot is free again
+        assertThat(get("/stats?machineId=M-1&start=2026-01-14T00:00:00Z&end=2026-01-15T00:00:00Z").statusCode())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void pinnedVirtualThread_isCountedAtItsSite() throws Exception {
+        Object monitor = new Object();
+        Thread t = Thread.ofVirtual().start(() -> {
+            synchronized (monitor) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        t.join();
+
+        // JFR hands events to the stream about once a second
+        String site = VirtualThreadsIntegrationTest.class.getName() + ".lambda$";
+        Timer timer = null;
+        for (int i = 0; i < 100 && timer == null; i++) {
+            timer = meterRegistry.find("jvm.threads.virtual.pinned").timers().stream()
+                    .filter(tm -> tm.getId().getTag("site").startsWith(site))
+                    .findFirst().orElse(null);
+            if (timer == null) Thread.sleep(100);
+        }
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(40);
+    }
+}
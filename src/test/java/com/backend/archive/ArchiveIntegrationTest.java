@@ -0,0 +1,256 @@
+package com.backend.archive;
+
+import com.backend.FactoryEventsApplicationTests;
+import com.backend.dao.EventBatchDao.EventRow;
+import com.backend.dto.EventIngestRequest;
+import com.backend.testutil.MutableClock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.*;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Moving old events to the archive must not change any /stats answer, whether the window
+ * is all archived, all in the table, or spans both. The archive directory and horizon
+ * persist across tests, which run in order.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+        "app.archive.enabled=true",
+        "app.archive.min-age=30d",
+        "app.archive.chunk-rows=4",
+        "app.archive.interval=0s"
+})
+@AutoConfigureMockMvc
+@Import(FactoryEventsApplicationTests.TestClockConfig.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ArchiveIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static final Path ARCHIVE_DIR;
+
+    static {
+        postgres.start();
+        try {
+            ARCHIVE_DIR = Files.createTempDirectory("event-archive-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+        r.add("app.archive.directory", ARCHIVE_DIR::toString);
+    }
+
+    static final Instant NOW = Instant.parse("2026-01-15T00:00:00Z");
+    static final Instant CUTOFF = NOW.minus(Duration.ofDays(30));
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired MutableClock clock;
+    @Autowired ArchiveCatalog catalog;
+    @Autowired EventArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        clock.set(NOW);
+    }
+
+    private EventIngestRequest event(String eventId, String factoryId, String lineId, String machineId,
+                                     Instant eventTime, int defects) {
+        return EventIngestRequest.builder()
+                .eventId(eventId)
+                .factoryId(factoryId)
+                .lineId(lineId)
+                .machineId(machineId)
+                .eventTime(eventTime)
+                .durationMs(1500)
+                .defectCount(defects)
+                .build();
+    }
+
+    private ResultActions ingest(List<EventIngestRequest> batch) throws Exception {
+        return mvc.perform(post("/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(batch)))
+                .andExpect(status().isOk());
+    }
+
+    private String fetch(String path, String... params) throws Exception {
+        var request = get(path);
+        for (int i = 0; i < params.length; i += 2) request.param(params[i], params[i + 1]);
+        return mvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+
+    /**
+     * Stats over windows that end up all archived, all in the table, and spanning both.
+     */
+    private List<String> snapshot() throws Exception {
+        List<String> out = new ArrayList<>();
+        String[][] windows = {
+                {"2025-11-01T00:00:00Z", "2026-01-15T00:00:00Z"},
+                {"2025-11-25T00:00:00Z", "2025-12-05T12:00:00Z"},
+                {"2025-12-10T00:00:00Z", "2026-01-12T00:00:00Z"},
+                {"2026-01-01T00:00:00Z", "2026-01-15T00:00:00Z"}
+        };
+        for (String[] w : windows) {
+            for (String machine : List.of("M-A1", "M-A2", "M-B1")) {
+                out.add(fetch("/stats", "machineId", machine, "start", w[0], "end", w[1]));
+            }
+            for (String factory : List.of("F-A", "F-B")) {
+                out.add(fetch("/stats/top-defect-lines", "factoryId", factory, "from", w[0], "to", w[1]));
+                out.add(fetch("/stats/top-defect-lines", "factoryId", factory, "from", w[0], "to", w[1], "limit", "1"));
+            }
+        }
+        return out;
+    }
+
+    private List<EventRow> tableRows(String where, Object... args) {
+        return jdbc.query("""
+                SELECT event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count
+                FROM event
+                """ + "WHERE " + where + " ORDER BY event_id",
+                (rs, n) -> new EventRow(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getTimestamp(5).toInstant(), rs.getTimestamp(6).toInstant(), rs.getLong(7), rs.getInt(8)), args);
+    }
+
+    private List<Path> archiveFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.walk(ARCHIVE_DIR)) {
+            return files.filter(f -> f.toString().endsWith(suffix)).toList();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void archiving_keepsStatsIdentical() throws Exception {
+        List<EventIngestRequest> batch = new ArrayList<>();
+        Instant old = Instant.parse("2025-11-20T06:00:00Z");
+        for (int i = 0; i < 30; i++) {
+            Instant t = old.plus(Duration.ofHours(19L * i));
+            String factory = i % 3 == 0 ? "F-B" : "F-A";
+            String machine = factory.equals("F-B") ? "M-B1" : (i % 2 == 0 ? "M-A1" : "M-A2");
+            batch.add(event("A-" + i, factory, "L-" + (i % 4), machine, t, i % 5 == 0 ? -1 : i % 4));
+        }
+        for (int i = 0; i < 8; i++) {
+            batch.add(event("R-" + i, i % 2 == 0 ? "F-A" : "F-B", "L-" + (i % 3), i % 2 == 0 ? "M-A1" : "M-B1",
+                    Instant.parse("2026-01-10T00:00:00Z").plus(Duration.ofHours(i)), i));
+        }
+        ingest(batch).andExpect(jsonPath("$.accepted").value(38));
+
+        // A newer version of an old event, before it is archived
+        clock.plus(Duration.ofSeconds(10));
+        ingest(List.of(event("A-4", "F-A", "L-3", "M-A1", old.plus(Duration.ofHours(19L * 4)), 7)))
+                .andExpect(jsonPath("$.updated").value(1));
+
+        clock.set(NOW);
+
+        List<String> before = snapshot();
+        List<EventRow> oldRows = tableRows("event_time < ?", Timestamp.from(CUTOFF));
+        assertThat(oldRows).isNotEmpty();
+
+        assertThat(archiver.archive()).isEqualTo(oldRows.size());
+
+        assertThat(tableRows("event_time < ?", Timestamp.from(CUTOFF))).isEmpty();
+        assertThat(tableRows("event_id LIKE 'R-%'")).hasSize(8);
+        assertThat(catalog.horizon()).isEqualTo(CUTOFF);
+        assertThat(archiveFiles(ArchiveFile.TMP_SUFFIX)).isEmpty();
+        // Partitioned by day, then factory
+        assertThat(archiveFiles(ArchiveFile.SUFFIX)).allSatisfy(f ->
+                assertThat(ARCHIVE_DIR.relativize(f).getNameCount()).isEqualTo(3));
+
+        List<EventRow> archived = new ArrayList<>();
+        for (Path f : archiveFiles(ArchiveFile.SUFFIX)) archived.addAll(ArchiveFile.readRows(f));
+        archived.sort(Comparator.comparing(EventRow::eventId));
+        assertThat(archived).isEqualTo(oldRows);
+
+        assertThat(snapshot()).isEqualTo(before);
+        // Every file is inflated at most once: the second pass over the same windows is all cache hits
+        long inflated = catalog.inflations();
+        assertThat(inflated).isPositive().isLessThanOrEqualTo(archiveFiles(ArchiveFile.SUFFIX).size());
+        assertThat(snapshot()).isEqualTo(before);
+        assertThat(catalog.inflations()).isEqualTo(inflated);
+
+        // Nothing left to move
+        assertThat(archiver.archive()).isZero();
+    }
+
+    @Test
+    @Order(2)
+    void ingest_rejectsEventTimesBelowTheHorizon() throws Exception {
+        ingest(List.of(
+                event("A-1", "F-A", "L-1", "M-A2", Instant.parse("2025-11-21T01:00:00Z"), 9),
+                event("N-1", "F-A", "L-1", "M-A2", CUTOFF.plusSeconds(1), 1)))
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejections[0].eventId").value("A-1"))
+                .andExpect(jsonPath("$.rejections[0].reason").value("ARCHIVED_EVENT_TIME"));
+    }
+
+    @Test
+    @Order(3)
+    void recover_settlesTempFilesOfAnInterruptedPass() throws Exception {
+        Instant t = Instant.parse("2025-12-01T10:00:00Z");
+        Path dir = Files.createDirectories(ARCHIVE_DIR.resolve("2025-12-01").resolve("F-C"));
+
+        // Crash before commit: the row is still in the table, the temp file must go
+        jdbc.update("""
+                INSERT INTO event (event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count)
+                VALUES ('C-1', 'F-C', 'L-1', 'M-C1', ?, ?, 1000, 2)
+                """, Timestamp.from(t), Timestamp.from(t));
+        Path uncommitted = dir.resolve("part-1-s0-901" + ArchiveFile.SUFFIX + ArchiveFile.TMP_SUFFIX);
+        ArchiveFile.write(uncommitted, LocalDate.parse("2025-12-01"), "F-C",
+                List.of(new EventRow("C-1", "F-C", "L-1", "M-C1", t, t, 1000, 2)));
+
+        // Crash after commit: the row is gone from the table, the temp file is its only copy
+        Path committed = dir.resolve("part-1-s0-902" + ArchiveFile.SUFFIX + ArchiveFile.TMP_SUFFIX);
+        ArchiveFile.write(committed, LocalDate.parse("2025-12-01"), "F-C",
+                List.of(new EventRow("C-2", "F-C", "L-1", "M-C2", t, t, 1000, 3)));
+
+        archiver.recover();
+
+        assertThat(uncommitted).doesNotExist();
+        assertThat(committed).doesNotExist();
+        assertThat(dir.resolve("part-1-s0-902" + ArchiveFile.SUFFIX)).exists();
+
+        mvc.perform(get("/stats")
+                        .param("machineId", "M-C2")
+                        .param("start", "2025-12-01T00:00:00Z")
+                        .param("end", "2025-12-02T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventsCount").value(1))
+                .andExpect(jsonPath("$.defectsCount").value(3));
+    }
+}
@@ -0,0 +1,193 @@
+package com.backend.backfill;
+
+import com.backend.FactoryEventsApplicationTests;
+import com.backend.dto.RejectionReason;
+import com.backend.service.EventService;
+import com.backend.testutil.MutableClock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Loads NDJSON and CSV files in small chunks (a few lines each) and small batches, so
+ * every run crosses chunk and batch boundaries with several workers.
+ */
+@Testcontainers
+@SpringBootTest
+@Import(FactoryEventsApplicationTests.TestClockConfig.class)
+class BackfillIntegrationTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    static final Instant NOW = Instant.parse("2026-01-15T00:00:00Z");
+    static final Instant T0 = NOW.minus(Duration.ofDays(1));
+
+    @Autowired EventService eventService;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired MutableClock clock;
+
+    @TempDir Path dir;
+
+    @BeforeEach
+    void setUp() {
+        clock.set(NOW);
+    }
+
+    private EventBackfill backfill(Path checkpoints) {
+        return new EventBackfill(eventService, om, 3, 7, 300, checkpoints, Duration.ofSeconds(1));
+    }
+
+    private static String json(String id, String machine, Instant t, long durationMs, int defects) {
+        return "{\"eventId\":\"" + id + "\",\"factoryId\":\"F-BF\",\"lineId\":\"L-1\",\"machineId\":\"" + machine
+                + "\",\"eventTime\":\"" + t + "\",\"durationMs\":" + durationMs + ",\"defectCount\":" + defects + "}";
+    }
+
+    private long count(String idPrefix) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM event WHERE event_id LIKE ?", Long.class, idPrefix + "%");
+    }
+
+    @Test
+    void ndjsonAndCsv_areLoadedWithIngestRules() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            ndjson.append(json("BF1-" + i, "M-BF" + (i % 3), T0.plusSeconds(i), 1000, i % 4)).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        ndjson.append(json("BF1-future", "M-BF0", NOW.plus(Duration.ofHours(1)), 1000, 0)).append('\n');
+        ndjson.append(json("BF1-long", "M-BF0", T0, Duration.ofHours(7).toMillis(), 0)).append('\n');
+        ndjson.append("{not json\n\n");
+        // Same payload as BF1-0: a dedupe
+        ndjson.append(json("BF1-0", "M-BF0", T0, 1000, 0)).append('\n');
+        Path nd = Files.writeString(dir.resolve("plant.ndjson"), ndjson, StandardCharsets.UTF_8);
+
+        StringBuilder csv = new StringBuilder("eventId,factoryId,lineId,machineId,eventTime,receivedTime,durationMs,defectCount\n");
+        for (int i = 0; i < 20; i++) {
+            csv.append("BF2-").append(i).append(",F-BF,L-2,M-BF9,").append(T0.plusSeconds(i)).append(",,500,1\n");
+        }
+        csv.append("\"BF2-q,1\",F-BF,\"L \"\"2\"\"\",M-BF9,").append(T0).append(',').append(NOW).append(",500,2\n");
+        csv.append("BF2-bad,F-BF,L-2,M-BF9,yesterday,,500,1\n");
+        csv.append("BF2-last,F-BF,L-2,M-BF9,").append(T0).append(",,500,3");
+        Path cs = Files.writeString(dir.resolve("plant.csv"), csv, StandardCharsets.UTF_8);
+
+        assertThat(EventFileReader.chunks(nd, 300)).hasSizeGreaterThan(5);
+
+        EventBackfill.Report report = backfill(dir.resolve("ckpt")).run(List.of(nd, cs));
+
+        assertThat(report.records()).isEqualTo(44 + 23);
+        assertThat(report.accepted()).isEqualTo(40 + 22);
+        assertThat(report.deduped()).isEqualTo(1);
+        assertThat(report.rejected()).isEqualTo(4);
+        assertThat(report.rejections()).isEqualTo(Map.of(
+                RejectionReason.FUTURE_EVENT_TIME, 1L,
+                RejectionReason.INVALID_DURATION, 1L,
+                RejectionReason.INVALID_REQUEST, 2L));
+
+        assertThat(count("BF1-")).isEqualTo(40);
+        assertThat(count("BF2-")).isEqualTo(22);
+        assertThat(jdbc.queryForObject("SELECT line_id FROM event WHERE event_id = 'BF2-q,1'", String.class))
+                .isEqualTo("L \"2\"");
+        assertThat(jdbc.queryForObject("SELECT defect_count FROM event WHERE event_id = 'BF2-last'", Integer.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void versionsInDifferentChunks_newestReceivedTimeWins() throws Exception {
+        // The newest version first, the stale ones in later chunks that other workers commit afterwards
+        StringBuilder ndjson = new StringBuilder();
+        ndjson.append(json("BF5-1", "M-BF5", T0, 1000, 9).replace("}", ",\"receivedTime\":\"" + T0.plusSeconds(30) + "\"}"))
+                .append('\n');
+        for (int i = 0; i < 20; i++) {
+            ndjson.append(json("BF5-pad-" + i, "M-BF5", T0.plusSeconds(i), 1000, 0)).append('\n');
+            ndjson.append(json("BF5-1", "M-BF5", T0, 1000, i).replace("}", ",\"receivedTime\":\"" + T0.plusSeconds(i) + "\"}"))
+                    .append('\n');
+        }
+        Path file = Files.writeString(dir.resolve("versions.ndjson"), ndjson, StandardCharsets.UTF_8);
+
+        backfill(dir.resolve("ckpt")).run(List.of(file));
+
+        assertThat(jdbc.queryForObject("SELECT defect_count FROM event WHERE event_id = 'BF5-1'", Integer.class))
+                .isEqualTo(9);
+        assertThat(jdbc.queryForObject("SELECT received_time FROM event WHERE event_id = 'BF5-1'", Timestamp.class)
+                .toInstant()).isEqualTo(T0.plusSeconds(30));
+    }
+
+    @Test
+    void rerun_resumesAfterTheLastCheckpoint() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 30; i++) lines.add(json("BF3-" + i, "M-BF3", T0.plusSeconds(i), 1000, 1));
+        Path file = Files.write(dir.resolve("resume.jsonl"), lines, StandardCharsets.UTF_8);
+        Path checkpoints = dir.resolve("ckpt");
+        Files.createDirectories(checkpoints);
+
+        // An interrupted run, with 1000-byte chunks, that committed the first 5 records of
+        // the first chunk; the rerun keeps that chunk size
+        List<EventFileReader.Chunk> chunks = EventFileReader.chunks(file, 1000);
+        long fifthLineEnd = 0;
+        for (int i = 0; i < 5; i++) fifthLineEnd += lines.get(i).getBytes(StandardCharsets.UTF_8).length + 1;
+        assertThat(chunks.get(0).end()).isGreaterThan(fifthLineEnd);
+        try (BackfillCheckpoint checkpoint = BackfillCheckpoint.open(checkpoints, file, 1000)) {
+            checkpoint.record(0, fifthLineEnd);
+        }
+
+        EventBackfill.Report report = backfill(checkpoints).run(List.of(file));
+
+        assertThat(report.records()).isEqualTo(25);
+        assertThat(count("BF3-")).isEqualTo(25);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM event WHERE event_id IN ('BF3-0', 'BF3-4')", Long.class))
+                .isZero();
+
+        // Everything is committed now
+        assertThat(backfill(checkpoints).run(List.of(file)).records()).isZero();
+    }
+
+    @Test
+    void changedFile_isRefused() throws Exception {
+        Path file = Files.writeString(dir.resolve("changed.ndjson"),
+                json("BF4-1", "M-BF4", T0, 1000, 0) + "\n", StandardCharsets.UTF_8);
+        Path checkpoints = dir.resolve("ckpt");
+        backfill(checkpoints).run(List.of(file));
+
+        Files.writeString(file, json("BF4-2", "M-BF4", T0, 1000, 0) + "\n", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.from(NOW));
+
+        assertThatThrownBy(() -> backfill(checkpoints).run(List.of(file)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("changed since its checkpoint");
+        assertThat(count("BF4-")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,158 @@
+package com.backend.dao;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset pages must stay index range scans whose cost does not depend on cursor depth or table size.
+ */
+@Testcontainers
+@SpringBootTest
+class EventQueryPlanTest {
+
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("factory_events")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final Set<String> SCOPE_INDEXES = Set.of("idx_event_machine_time", "idx_event_factory_line_time");
+    private static final Instant FROM = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2027-01-01T00:00:00Z");
+    private static final int PAGE = 101;
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired ObjectMapper om;
+
+    /**
+     * Grows the table to {@code size} rows: 2 factories, 5 lines each, 10 machines, one event per second.
+     */
+    private void growTo(int size) {
+        jdbc.update("""
+            INSERT INTO event (event_id, factory_id, line_id, machine_id, event_time, received_time, duration_ms, defect_count)
+            SELECT 'E-' || g, 'F-' || (g % 2), 'L-' || (g % 10), 'M-' || (g % 10),
+                   TIMESTAMPTZ '2026-01-01 00:00:00+00' + g * INTERVAL '1 second', now(), 1000, g % 3
+            FROM generate_series((SELECT COUNT(*) FROM event), ? - 1) AS g
+            """, size);
+        jdbc.execute("VACUUM ANALYZE event");
+    }
+
+    private static Map<String, EventFilter> scopes() {
+        Map<String, EventFilter> m = new LinkedHashMap<>();
+        m.put("machine", new EventFilter("M-7", null, null, FROM, TO));
+        m.put("line", new EventFilter(null, "F-0", "L-4", FROM, TO));
+        m.put("factory", new EventFilter(null, "F-0", null, FROM, TO));
+        return m;
+    }
+
+    /**
+     * Cursor halfway through the scope: the deeper the table grows, the deeper the page.
+     * Halfway (not near the end) keeps plenty of rows ahead, so the plan is a real seek.
+     */
+    private EventCursor deepCursor(EventFilter f) {
+        String where = " FROM event WHERE " + f.whereClause();
+        long count = jdbc.query(con -> {
+            var ps = con.prepareStatement("SELECT COUNT(*)" + where);
+            f.bind(ps, 1);
+            return ps;
+        }, rs -> { rs.next(); return rs.getLong(1); });
+
+        return jdbc.query(con -> {
+            var ps = con.prepareStatement("SELECT event_time, id" + where + " ORDER BY event_time, id OFFSET ? LIMIT 1");
+            ps.setLong(f.bind(ps, 1), count / 2);
+            return ps;
+        }, rs -> {
+            rs.next();
+            return new EventCursor(rs.getTimestamp(1).toInstant(), 0, rs.getLong(2));
+        });
+    }
+
+    private JsonNode explain(EventFilter f, EventCursor after) throws Exception {
+        String json = jdbc.query(
+                EventQueryDao.pageStatement(f, after, PAGE, "EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) "),
+                rs -> { rs.next(); return rs.getString(1); });
+        return om.readTree(json).get(0).get("Plan");
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> scans, List<JsonNode> indexUses) {
+        if ("event".equals(node.path("Relation Name").asText())) scans.add(node);
+        if (node.has("Index Name")) indexUses.add(node);
+        for (JsonNode child : node.path("Plans")) collect(child, scans, indexUses);
+    }
+
+    private static long buffers(JsonNode plan) {
+        return plan.path("Shared Hit Blocks").asLong() + plan.path("Shared Read Blocks").asLong();
+    }
+
+    /**
+     * Every access to event is an index range scan on a scope index bounded by event_time.
+     * A bitmap scan is fine near the end of a scope (few rows left); a Seq Scan never is.
+     */
+    private static void assertIndexRangeScansOnly(String label, JsonNode plan) {
+        List<JsonNode> scans = new ArrayList<>();
+        List<JsonNode> indexUses = new ArrayList<>();
+        collect(plan, scans, indexUses);
+
+        assertThat(scans).as(label).isNotEmpty();
+        for (JsonNode scan : scans) {
+            assertThat(scan.path("Node Type").asText()).as(label)
+                    .isIn("Index Scan", "Index Only Scan", "Bitmap Heap Scan");
+        }
+        for (JsonNode use : indexUses) {
+            assertThat(use.path("Index Name").asText()).as(label).isIn(SCOPE_INDEXES);
+        }
+        // The page itself (not the loose scan over lines) must seek on event_time
+        assertThat(indexUses).as(label)
+                .anyMatch(use -> use.path("Index Cond").asText().contains("event_time >="));
+    }
+
+    @Test
+    void pageCost_doesNotGrowWithDepthOrTableSize() throws Exception {
+        jdbc.execute("TRUNCATE event");
+
+        Map<String, Long> smallFirstPage = new HashMap<>();
+        for (int size : new int[]{50_000, 500_000}) {
+            growTo(size);
+
+            for (var scope : scopes().entrySet()) {
+                String label = scope.getKey() + "@" + size;
+                JsonNode first = explain(scope.getValue(), null);
+                JsonNode deep = explain(scope.getValue(), deepCursor(scope.getValue()));
+
+                assertIndexRangeScansOnly(label + " first", first);
+                assertIndexRangeScansOnly(label + " deep", deep);
+
+                smallFirstPage.putIfAbsent(scope.getKey(), buffers(first));
+                long baseline = smallFirstPage.get(scope.getKey());
+                // Same page size -> same order of magnitude of pages touched, whatever the depth or size
+                assertThat(buffers(deep)).as(label + " deep buffers").isLessThanOrEqualTo(baseline * 2 + 50);
+                assertThat(buffers(first)).as(label + " first buffers").isLessThanOrEqualTo(baseline * 2 + 50);
+            }
+        }
+    }
+}
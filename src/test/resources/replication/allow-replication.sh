@@ -0,0 +1,3 @@
+#!/bin/sh
+# Lets the replica container stream WAL from this primary over the test network
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"